@@ -1,5 +1,6 @@
 package com.ewintory.alexandria;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.database.Cursor;
@@ -8,6 +9,8 @@ import android.test.AndroidTestCase;
 
 import com.ewintory.alexandria.provider.AlexandriaContract;
 
+import java.util.ArrayList;
+
 /**
  * Created by saj on 23/12/14.
  */
@@ -36,6 +39,12 @@ public class TestProvider extends AndroidTestCase {
                 null
         );
 
+        mContext.getContentResolver().delete(
+                AlexandriaContract.LookupEntry.CONTENT_URI,
+                null,
+                null
+        );
+
         Cursor cursor = mContext.getContentResolver().query(
                 AlexandriaContract.BookEntry.CONTENT_URI,
                 null,
@@ -103,6 +112,63 @@ public class TestProvider extends AndroidTestCase {
         readFullList();
     }
 
+    public void testApplyBatch() throws Exception {
+        ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+        ops.add(ContentProviderOperation.newInsert(AlexandriaContract.BookEntry.CONTENT_URI)
+                .withValues(TestDb.getBookValues()).build());
+        ops.add(ContentProviderOperation.newInsert(AlexandriaContract.AuthorEntry.CONTENT_URI)
+                .withValues(TestDb.getAuthorValues()).build());
+        ops.add(ContentProviderOperation.newInsert(AlexandriaContract.CategoryEntry.CONTENT_URI)
+                .withValues(TestDb.getCategoryValues()).build());
+
+        mContext.getContentResolver().applyBatch(AlexandriaContract.CONTENT_AUTHORITY, ops);
+
+        readFullBook();
+        readFullList();
+    }
+
+    public void testBulkInsert() {
+        ContentValues[] authors = {TestDb.getAuthorValues(), TestDb.getAuthorValues()};
+        authors[1].put(AlexandriaContract.AuthorEntry.AUTHOR, "Peter Norvig");
+
+        int inserted = mContext.getContentResolver().bulkInsert(AlexandriaContract.AuthorEntry.CONTENT_URI, authors);
+        assertEquals(2, inserted);
+
+        Cursor cursor = mContext.getContentResolver().query(
+                AlexandriaContract.AuthorEntry.CONTENT_URI,
+                null, // projection
+                null, // selection
+                null, // selection args
+                null  // sort order
+        );
+        assertEquals(2, cursor.getCount());
+        cursor.close();
+    }
+
+    public void testLookupReplacesPrevious() {
+        ContentValues miss = new ContentValues();
+        miss.put(AlexandriaContract.LookupEntry._ID, TestDb.ean);
+        miss.put(AlexandriaContract.LookupEntry.FOUND, 0);
+        miss.put(AlexandriaContract.LookupEntry.FETCHED_AT, 1000L);
+        mContext.getContentResolver().insert(AlexandriaContract.LookupEntry.CONTENT_URI, miss);
+
+        ContentValues hit = new ContentValues();
+        hit.put(AlexandriaContract.LookupEntry._ID, TestDb.ean);
+        hit.put(AlexandriaContract.LookupEntry.FOUND, 1);
+        hit.put(AlexandriaContract.LookupEntry.FETCHED_AT, 2000L);
+        mContext.getContentResolver().insert(AlexandriaContract.LookupEntry.CONTENT_URI, hit);
+
+        Cursor cursor = mContext.getContentResolver().query(
+                AlexandriaContract.LookupEntry.buildLookupUri(TestDb.ean),
+                null, // projection
+                null, // selection
+                null, // selection args
+                null  // sort order
+        );
+
+        TestDb.validateCursor(cursor, hit);
+    }
+
     public void insertReadBook(){
         ContentValues bookValues = TestDb.getBookValues();
 
@@ -5,10 +5,16 @@ import android.content.Context;
 
 import com.squareup.leakcanary.LeakCanary;
 import com.squareup.leakcanary.RefWatcher;
+import com.squareup.okhttp.OkHttpClient;
+
+import java.util.concurrent.TimeUnit;
 
 public final class AlexandriaApplication extends Application {
 
+    private static final long HTTP_TIMEOUT_SECONDS = 15;
+
     private RefWatcher mRefWatcher;
+    private OkHttpClient mHttpClient;
 
     public static AlexandriaApplication get(Context context) {
         return (AlexandriaApplication) context.getApplicationContext();
@@ -24,6 +30,19 @@ public final class AlexandriaApplication extends Application {
         return mRefWatcher;
     }
 
+    /**
+     * The client is shared by all lookups, so consecutive ones reuse a pooled keep-alive
+     * connection instead of paying for a new TCP and TLS handshake. Responses are gzipped.
+     */
+    public synchronized OkHttpClient getHttpClient() {
+        if (mHttpClient == null) {
+            mHttpClient = new OkHttpClient();
+            mHttpClient.setConnectTimeout(HTTP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            mHttpClient.setReadTimeout(HTTP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        return mHttpClient;
+    }
+
     protected RefWatcher installLeakCanary() {
         return LeakCanary.install(this);
         //return RefWatcher.DISABLED;
@@ -13,6 +13,7 @@ public final class AlexandriaContract {
     public static final String PATH_BOOKS = "books";
     public static final String PATH_AUTHORS = "authors";
     public static final String PATH_CATEGORIES = "categories";
+    public static final String PATH_LOOKUPS = "lookups";
 
     public static final String PATH_FULLBOOK = "fullbook";
 
@@ -80,4 +81,28 @@ public final class AlexandriaContract {
         }
 
     }
+
+    /**
+     * Outcome of the last Google Books lookup of an EAN, kept for misses too.
+     */
+    public static final class LookupEntry implements BaseColumns {
+        public static final Uri CONTENT_URI = BASE_CONTENT_URI.buildUpon().appendPath(PATH_LOOKUPS).build();
+
+        public static final String CONTENT_TYPE =
+                "vnd.android.cursor.dir/" + CONTENT_AUTHORITY + "/" + PATH_LOOKUPS;
+        public static final String CONTENT_ITEM_TYPE =
+                "vnd.android.cursor.item/" + CONTENT_AUTHORITY + "/" + PATH_LOOKUPS;
+
+        public static final String TABLE_NAME = "lookups";
+
+        // 1 if the lookup found a volume, 0 otherwise
+        public static final String FOUND = "found";
+
+        // Time of the lookup in milliseconds since the epoch
+        public static final String FETCHED_AT = "fetched_at";
+
+        public static Uri buildLookupUri(long id) {
+            return ContentUris.withAppendedId(CONTENT_URI, id);
+        }
+    }
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import android.util.Log;
 
 public final class AlexandriaDatabase extends SQLiteOpenHelper {
 
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
     public static final String DATABASE_NAME = "alexandria.db";
 
     public AlexandriaDatabase(Context context) {
@@ -46,11 +46,24 @@ public final class AlexandriaDatabase extends SQLiteOpenHelper {
         db.execSQL(SQL_CREATE_BOOK_TABLE);
         db.execSQL(SQL_CREATE_AUTHOR_TABLE);
         db.execSQL(SQL_CREATE_CATEGORY_TABLE);
+        createLookupTable(db);
 
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createLookupTable(db);
+        }
+    }
+
+    private void createLookupTable(SQLiteDatabase db) {
+        final String SQL_CREATE_LOOKUP_TABLE = "CREATE TABLE " + AlexandriaContract.LookupEntry.TABLE_NAME + " ("+
+                AlexandriaContract.LookupEntry._ID + " INTEGER PRIMARY KEY ON CONFLICT REPLACE," +
+                AlexandriaContract.LookupEntry.FOUND + " INTEGER NOT NULL," +
+                AlexandriaContract.LookupEntry.FETCHED_AT + " INTEGER NOT NULL)";
 
+        Log.d("sql-statments", SQL_CREATE_LOOKUP_TABLE);
+        db.execSQL(SQL_CREATE_LOOKUP_TABLE);
     }
 }
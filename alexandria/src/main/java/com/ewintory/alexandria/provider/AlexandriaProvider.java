@@ -1,14 +1,21 @@
 package com.ewintory.alexandria.provider;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
 import android.net.Uri;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public final class AlexandriaProvider extends ContentProvider {
 
     private static final int BOOK_ID = 100;
@@ -20,6 +27,9 @@ public final class AlexandriaProvider extends ContentProvider {
     private static final int CATEGORY_ID = 300;
     private static final int CATEGORY = 301;
 
+    private static final int LOOKUP_ID = 400;
+    private static final int LOOKUP = 401;
+
     private static final int BOOK_FULL = 500;
     private static final int BOOK_FULLDETAIL = 501;
 
@@ -27,6 +37,9 @@ public final class AlexandriaProvider extends ContentProvider {
 
     private AlexandriaDatabase dbHelper;
 
+    // Uris changed by the batch running on this thread, notified once it commits
+    private final ThreadLocal<Set<Uri>> batchChanges = new ThreadLocal<>();
+
     private static final SQLiteQueryBuilder bookFull;
 
     static {
@@ -46,10 +59,12 @@ public final class AlexandriaProvider extends ContentProvider {
         matcher.addURI(authority, AlexandriaContract.PATH_BOOKS + "/#", BOOK_ID);
         matcher.addURI(authority, AlexandriaContract.PATH_AUTHORS + "/#", AUTHOR_ID);
         matcher.addURI(authority, AlexandriaContract.PATH_CATEGORIES + "/#", CATEGORY_ID);
+        matcher.addURI(authority, AlexandriaContract.PATH_LOOKUPS + "/#", LOOKUP_ID);
 
         matcher.addURI(authority, AlexandriaContract.PATH_BOOKS, BOOK);
         matcher.addURI(authority, AlexandriaContract.PATH_AUTHORS, AUTHOR);
         matcher.addURI(authority, AlexandriaContract.PATH_CATEGORIES, CATEGORY);
+        matcher.addURI(authority, AlexandriaContract.PATH_LOOKUPS, LOOKUP);
 
         matcher.addURI(authority, AlexandriaContract.PATH_FULLBOOK + "/#", BOOK_FULLDETAIL);
         matcher.addURI(authority, AlexandriaContract.PATH_FULLBOOK, BOOK_FULL);
@@ -134,6 +149,28 @@ public final class AlexandriaProvider extends ContentProvider {
                         sortOrder
                 );
                 break;
+            case LOOKUP:
+                retCursor = dbHelper.getReadableDatabase().query(
+                        AlexandriaContract.LookupEntry.TABLE_NAME,
+                        projection,
+                        selection,
+                        selectionArgs,
+                        null,
+                        null,
+                        sortOrder
+                );
+                break;
+            case LOOKUP_ID:
+                retCursor = dbHelper.getReadableDatabase().query(
+                        AlexandriaContract.LookupEntry.TABLE_NAME,
+                        projection,
+                        AlexandriaContract.LookupEntry._ID + " = '" + ContentUris.parseId(uri) + "'",
+                        selectionArgs,
+                        null,
+                        null,
+                        sortOrder
+                );
+                break;
             case BOOK_FULLDETAIL:
                 String[] bfd_projection = {
                         AlexandriaContract.BookEntry.TABLE_NAME + "." + AlexandriaContract.BookEntry.TITLE,
@@ -189,12 +226,16 @@ public final class AlexandriaProvider extends ContentProvider {
                 return AlexandriaContract.AuthorEntry.CONTENT_ITEM_TYPE;
             case CATEGORY_ID:
                 return AlexandriaContract.CategoryEntry.CONTENT_ITEM_TYPE;
+            case LOOKUP_ID:
+                return AlexandriaContract.LookupEntry.CONTENT_ITEM_TYPE;
             case BOOK:
                 return AlexandriaContract.BookEntry.CONTENT_TYPE;
             case AUTHOR:
                 return AlexandriaContract.AuthorEntry.CONTENT_TYPE;
             case CATEGORY:
                 return AlexandriaContract.CategoryEntry.CONTENT_TYPE;
+            case LOOKUP:
+                return AlexandriaContract.LookupEntry.CONTENT_TYPE;
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
@@ -213,7 +254,7 @@ public final class AlexandriaProvider extends ContentProvider {
                 } else {
                     throw new android.database.SQLException("Failed to insert row into " + uri);
                 }
-                getContext().getContentResolver().notifyChange(AlexandriaContract.BookEntry.buildFullBookUri(_id), null);
+                notifyChange(AlexandriaContract.BookEntry.buildFullBookUri(_id));
                 break;
             }
             case AUTHOR: {
@@ -232,6 +273,15 @@ public final class AlexandriaProvider extends ContentProvider {
                     throw new android.database.SQLException("Failed to insert row into " + uri);
                 break;
             }
+            case LOOKUP: {
+                // Replaces the previous lookup of the same EAN
+                long _id = db.insert(AlexandriaContract.LookupEntry.TABLE_NAME, null, values);
+                if (_id > 0)
+                    returnUri = AlexandriaContract.LookupEntry.buildLookupUri(_id);
+                else
+                    throw new android.database.SQLException("Failed to insert row into " + uri);
+                break;
+            }
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
@@ -256,6 +306,10 @@ public final class AlexandriaProvider extends ContentProvider {
                 rowsDeleted = db.delete(
                         AlexandriaContract.CategoryEntry.TABLE_NAME, selection, selectionArgs);
                 break;
+            case LOOKUP:
+                rowsDeleted = db.delete(
+                        AlexandriaContract.LookupEntry.TABLE_NAME, selection, selectionArgs);
+                break;
             case BOOK_ID:
                 rowsDeleted = db.delete(
                         AlexandriaContract.BookEntry.TABLE_NAME,
@@ -267,7 +321,7 @@ public final class AlexandriaProvider extends ContentProvider {
         }
         // Because a null deletes all rows
         if (selection == null || rowsDeleted != 0) {
-            getContext().getContentResolver().notifyChange(uri, null);
+            notifyChange(uri);
         }
         return rowsDeleted;
     }
@@ -290,13 +344,77 @@ public final class AlexandriaProvider extends ContentProvider {
                 rowsUpdated = db.update(AlexandriaContract.CategoryEntry.TABLE_NAME, values, selection,
                         selectionArgs);
                 break;
+            case LOOKUP:
+                rowsUpdated = db.update(AlexandriaContract.LookupEntry.TABLE_NAME, values, selection,
+                        selectionArgs);
+                break;
 
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
         if (rowsUpdated != 0) {
-            getContext().getContentResolver().notifyChange(uri, null);
+            notifyChange(uri);
         }
         return rowsUpdated;
     }
-}
\ No newline at end of file
+
+    /**
+     * Inserts all the values in one transaction, observers are notified once it has committed.
+     */
+    @Override
+    public int bulkInsert(Uri uri, ContentValues[] values) {
+        final SQLiteDatabase db = dbHelper.getWritableDatabase();
+        final Set<Uri> changes = new LinkedHashSet<>();
+        batchChanges.set(changes);
+        db.beginTransaction();
+        try {
+            for (ContentValues value : values) {
+                insert(uri, value);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            batchChanges.remove();
+            db.endTransaction();
+        }
+        notifyChanges(changes);
+        return values.length;
+    }
+
+    /**
+     * Applies the operations in one transaction, either all of them are stored or none.
+     * Observers are notified once the transaction has committed.
+     */
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        final SQLiteDatabase db = dbHelper.getWritableDatabase();
+        final Set<Uri> changes = new LinkedHashSet<>();
+        final ContentProviderResult[] results;
+        batchChanges.set(changes);
+        db.beginTransaction();
+        try {
+            results = super.applyBatch(operations);
+            db.setTransactionSuccessful();
+        } finally {
+            batchChanges.remove();
+            db.endTransaction();
+        }
+        notifyChanges(changes);
+        return results;
+    }
+
+    private void notifyChange(Uri uri) {
+        final Set<Uri> changes = batchChanges.get();
+        if (changes != null) {
+            changes.add(uri);
+        } else {
+            getContext().getContentResolver().notifyChange(uri, null);
+        }
+    }
+
+    private void notifyChanges(Set<Uri> uris) {
+        for (Uri uri : uris) {
+            getContext().getContentResolver().notifyChange(uri, null);
+        }
+    }
+}
@@ -1,24 +1,33 @@
 package com.ewintory.alexandria.service;
 
 import android.app.IntentService;
-import android.content.ContentValues;
+import android.content.ContentProviderOperation;
 import android.content.Intent;
+import android.content.OperationApplicationException;
 import android.content.SharedPreferences;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.net.Uri;
+import android.os.RemoteException;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
+import android.provider.BaseColumns;
 import android.support.annotation.IntDef;
 import android.support.v4.content.LocalBroadcastManager;
+import android.text.format.DateUtils;
 import android.util.Log;
+import android.util.MalformedJsonException;
+import android.util.Pair;
 
+import com.ewintory.alexandria.AlexandriaApplication;
 import com.ewintory.alexandria.R;
 import com.ewintory.alexandria.provider.AlexandriaContract;
 import com.ewintory.alexandria.ui.activity.MainActivity;
 import com.ewintory.alexandria.utils.Utils;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
 
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -26,8 +35,19 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 
 
 /**
@@ -41,7 +61,39 @@ public final class BookService extends IntentService {
     public static final String ACTION_FETCH_BOOK = "com.ewintory.alexandria.services.action.ACTION_FETCH_BOOK";
     public static final String ACTION_DELETE_BOOK = "com.ewintory.alexandria.services.action.ACTION_DELETE_BOOK";
 
+    /**
+     * Imports the EANs of {@link #EXTRA_EANS} or of the text or CSV file at the intent's data uri,
+     * progress is reported by local {@link #BROADCAST_IMPORT_PROGRESS} broadcasts.
+     */
+    public static final String ACTION_IMPORT_BOOKS = "com.ewintory.alexandria.services.action.ACTION_IMPORT_BOOKS";
+
     public static final String EXTRA_EAN = "com.ewintory.alexandria.services.extras.EXTRA_EAN";
+    public static final String EXTRA_EANS = "com.ewintory.alexandria.services.extras.EXTRA_EANS";
+
+    public static final String BROADCAST_IMPORT_PROGRESS = "com.ewintory.alexandria.services.broadcast.IMPORT_PROGRESS";
+    // Int extras of the progress broadcast, books already stored count as done
+    public static final String EXTRA_IMPORT_TOTAL = "com.ewintory.alexandria.services.extras.EXTRA_IMPORT_TOTAL";
+    public static final String EXTRA_IMPORT_DONE = "com.ewintory.alexandria.services.extras.EXTRA_IMPORT_DONE";
+    public static final String EXTRA_IMPORT_ADDED = "com.ewintory.alexandria.services.extras.EXTRA_IMPORT_ADDED";
+    public static final String EXTRA_IMPORT_FAILED = "com.ewintory.alexandria.services.extras.EXTRA_IMPORT_FAILED";
+    // Boolean extra, set on the last broadcast of an import
+    public static final String EXTRA_IMPORT_FINISHED = "com.ewintory.alexandria.services.extras.EXTRA_IMPORT_FINISHED";
+
+    private static final int MAX_IMPORT_THREADS = 4;
+    private static final int IMPORT_BATCH_SIZE = 20;
+    // Below SQLite's limit of 999 arguments per statement
+    private static final int MAX_QUERY_ARGS = 500;
+
+    // How long lookups are trusted, stale hits are revalidated and stale misses looked up again
+    private static final long HIT_TTL_MILLIS = 30 * DateUtils.DAY_IN_MILLIS;
+    private static final long MISS_TTL_MILLIS = DateUtils.DAY_IN_MILLIS;
+
+    // Partial response with only the fields read by VolumeReader
+    private static final String VOLUME_FIELDS =
+            "items(volumeInfo(title,subtitle,description,imageLinks/thumbnail,authors,categories))";
+
+    // Separates the EANs of an imported file: commas, semicolons, quotes and whitespace
+    private static final Pattern EAN_SEPARATOR = Pattern.compile("[,;\"\\s]+");
 
     @Retention(RetentionPolicy.SOURCE)
     @IntDef({BOOK_SERVICE_STATUS_OK,
@@ -67,6 +119,8 @@ public final class BookService extends IntentService {
             if (ACTION_FETCH_BOOK.equals(action)) {
                 final String ean = intent.getStringExtra(EXTRA_EAN);
                 fetchBook(ean);
+            } else if (ACTION_IMPORT_BOOKS.equals(action)) {
+                importBooks(intent);
             } else if (ACTION_DELETE_BOOK.equals(action)) {
                 final String ean = intent.getStringExtra(EXTRA_EAN);
                 deleteBook(ean);
@@ -101,158 +155,347 @@ public final class BookService extends IntentService {
                 null, // values for "where" clause
                 null  // sort order
         );
+        final boolean stored = bookEntry.getCount() > 0;
+        bookEntry.close();
 
-        if (bookEntry.getCount() > 0) {
-            bookEntry.close();
+        Cursor lookupEntry = getContentResolver().query(
+                AlexandriaContract.LookupEntry.buildLookupUri(Long.parseLong(ean)),
+                new String[]{AlexandriaContract.LookupEntry.FOUND, AlexandriaContract.LookupEntry.FETCHED_AT},
+                null,
+                null,
+                null
+        );
+        final boolean cached = lookupEntry.moveToFirst();
+        final boolean found = cached && lookupEntry.getInt(0) != 0;
+        final long age = cached ? System.currentTimeMillis() - lookupEntry.getLong(1) : Long.MAX_VALUE;
+        lookupEntry.close();
+
+        if (stored) {
+            // The stored book is shown already, a stale one is refreshed behind it. A book that
+            // Google Books dropped has a miss row, it is kept and checked on the same schedule.
+            if (!cached || age > HIT_TTL_MILLIS) {
+                revalidateBook(ean);
+            }
             return;
         }
 
-        bookEntry.close();
-
-        HttpURLConnection urlConnection = null;
-        BufferedReader reader = null;
-        String bookJsonString = null;
+        if (cached && !found && age <= MISS_TTL_MILLIS) {
+            setBookServiceStatus(BOOK_SERVICE_STATUS_INVALID);
+            return;
+        }
 
+        final VolumeInfo book;
         try {
-            final String BOOKS_BASE_URL = "https://www.googleapis.com/books/v1/volumes?";
-            final String QUERY_PARAM = "q";
-
-            final String ISBN_PARAM = "isbn:" + ean;
+            book = lookupBook(ean);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Error ", e);
+            setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_DOWN);
+            return;
+        } catch (JSONException e) {
+            Log.e(LOG_TAG, "Error ", e);
+            setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_INVALID);
+            return;
+        }
 
-            Uri builtUri = Uri.parse(BOOKS_BASE_URL).buildUpon()
-                    .appendQueryParameter(QUERY_PARAM, ISBN_PARAM)
-                    .build();
+        final ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+        addLookupOperation(ops, ean, book != null);
+        if (book == null) {
+            applyBatch(ops);
+            setBookServiceStatus(BOOK_SERVICE_STATUS_INVALID);
+            return;
+        }
+        setBookServiceStatus(BOOK_SERVICE_STATUS_OK);
 
-            URL url = new URL(builtUri.toString());
+        addBookOperations(ops, ean, book);
+        applyBatch(ops);
+    }
 
-            urlConnection = (HttpURLConnection) url.openConnection();
-            urlConnection.setRequestMethod("GET");
-            urlConnection.connect();
+    /**
+     * Looks a stored book up again and replaces it, its authors and its categories in one batch.
+     * Failures keep the stored book and its lookup row, a book gone from Google Books is kept
+     * and recorded as a miss.
+     */
+    private void revalidateBook(String ean) {
+        final VolumeInfo book;
+        try {
+            book = lookupBook(ean);
+        } catch (IOException | JSONException e) {
+            Log.w(LOG_TAG, "Failed to revalidate " + ean + ": " + e.getMessage());
+            return;
+        }
 
-            InputStream inputStream = urlConnection.getInputStream();
-            StringBuffer buffer = new StringBuffer();
-            if (inputStream == null) {
-                setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_DOWN);
-                return;
-            }
+        final ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+        addLookupOperation(ops, ean, book != null);
+        if (book != null) {
+            ops.add(ContentProviderOperation.newDelete(
+                    AlexandriaContract.BookEntry.buildBookUri(Long.parseLong(ean))).build());
+            ops.add(ContentProviderOperation.newDelete(AlexandriaContract.AuthorEntry.CONTENT_URI)
+                    .withSelection(AlexandriaContract.AuthorEntry._ID + " = ?", new String[]{ean})
+                    .build());
+            ops.add(ContentProviderOperation.newDelete(AlexandriaContract.CategoryEntry.CONTENT_URI)
+                    .withSelection(AlexandriaContract.CategoryEntry._ID + " = ?", new String[]{ean})
+                    .build());
+            addBookOperations(ops, ean, book);
+        }
+        applyBatch(ops);
+    }
 
-            reader = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                buffer.append(line);
-                buffer.append("\n");
-            }
+    /**
+     * Looks the EAN up in Google Books, safe to call from several threads.
+     *
+     * @return the first volume found, or {@code null} if there is none
+     * @throws IOException   if the server could not be reached or sent nothing
+     * @throws JSONException if the response is not a volumes list
+     */
+    private VolumeInfo lookupBook(String ean) throws IOException, JSONException {
+        final String BOOKS_BASE_URL = "https://www.googleapis.com/books/v1/volumes?";
+        final String QUERY_PARAM = "q";
+        final String FIELDS_PARAM = "fields";
+
+        final String ISBN_PARAM = "isbn:" + ean;
+
+        Uri builtUri = Uri.parse(BOOKS_BASE_URL).buildUpon()
+                .appendQueryParameter(QUERY_PARAM, ISBN_PARAM)
+                .appendQueryParameter(FIELDS_PARAM, VOLUME_FIELDS)
+                .build();
+
+        final long start = SystemClock.elapsedRealtime();
+        final Request request = new Request.Builder().url(builtUri.toString()).build();
+        final Response response = AlexandriaApplication.get(this).getHttpClient().newCall(request).execute();
+        if (!response.isSuccessful()) {
+            response.body().close();
+            throw new IOException("Unexpected response for " + ean + ": " + response.code());
+        }
 
-            if (buffer.length() == 0) {
-                setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_DOWN);
-                return;
-            }
-            bookJsonString = buffer.toString();
-            Log.d(LOG_TAG, "bookJsonString=" + bookJsonString);
-        } catch (Exception e) {
-            Log.e(LOG_TAG, "Error ", e);
-            setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_DOWN);
+        final VolumeInfo book;
+        try {
+            // Reads the body to its end and closes it, so the connection goes back to the pool
+            book = VolumeReader.read(response.body().charStream());
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JSONException("Invalid response for " + ean + ": " + e.getMessage());
         } finally {
-            if (urlConnection != null) {
-                urlConnection.disconnect();
+            Log.d(LOG_TAG, String.format("Lookup of %s took %d ms, %s", ean,
+                    SystemClock.elapsedRealtime() - start, response.protocol()));
+        }
+        if (book != null && book.title == null) {
+            throw new JSONException("No title for " + ean);
+        }
+        return book;
+    }
+
+    /**
+     * Imports the EANs of the intent's extra or, if there are none, of the text or CSV file at
+     * the intent's data uri. EANs already stored or recently not found are skipped, the others
+     * are looked up by a bounded pool and stored in batches of {@link #IMPORT_BATCH_SIZE} books,
+     * each batch in one transaction. Progress is broadcast locally after every batch.
+     */
+    private void importBooks(Intent intent) {
+        final Set<String> eans = new LinkedHashSet<>();
+        final String[] extraEans = intent.getStringArrayExtra(EXTRA_EANS);
+        if (extraEans != null) {
+            for (String ean : extraEans) {
+                addEan(eans, ean);
             }
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (final IOException e) {
-                    Log.e(LOG_TAG, "Error closing stream", e);
-                }
+        } else if (intent.getData() != null) {
+            try {
+                readEans(intent.getData(), eans);
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Failed to read " + intent.getData(), e);
+                broadcastImportProgress(0, 0, 0, 0, true);
+                return;
             }
-
         }
 
-        final String ITEMS = "items";
-
-        final String VOLUME_INFO = "volumeInfo";
-
-        final String TITLE = "title";
-        final String SUBTITLE = "subtitle";
-        final String AUTHORS = "authors";
-        final String DESC = "description";
-        final String CATEGORIES = "categories";
-        final String IMG_URL_PATH = "imageLinks";
-        final String IMG_URL = "thumbnail";
-
+        final int total = eans.size();
+        eans.removeAll(queryEans(AlexandriaContract.BookEntry.CONTENT_URI, null, eans));
+        final int skipped = total - eans.size();
+        final Set<String> misses = queryEans(AlexandriaContract.LookupEntry.CONTENT_URI,
+                AlexandriaContract.LookupEntry.FOUND + " = 0 AND " + AlexandriaContract.LookupEntry.FETCHED_AT
+                        + " >= " + (System.currentTimeMillis() - MISS_TTL_MILLIS), eans);
+        eans.removeAll(misses);
+        Log.d(LOG_TAG, String.format("Importing %d books, %d already stored, %d known misses",
+                eans.size(), skipped, misses.size()));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(MAX_IMPORT_THREADS);
+        final CompletionService<Pair<String, VolumeInfo>> lookups = new ExecutorCompletionService<>(executor);
         try {
-            JSONObject bookJson = new JSONObject(bookJsonString);
-            JSONArray bookArray;
-            if (bookJson.has(ITEMS)) {
-                bookArray = bookJson.getJSONArray(ITEMS);
-                setBookServiceStatus(BOOK_SERVICE_STATUS_OK);
-            } else {
-                setBookServiceStatus(BOOK_SERVICE_STATUS_INVALID);
-                return;
+            for (final String ean : eans) {
+                lookups.submit(new Callable<Pair<String, VolumeInfo>>() {
+                    @Override public Pair<String, VolumeInfo> call() throws Exception {
+                        return Pair.create(ean, lookupBook(ean));
+                    }
+                });
             }
 
-            JSONObject bookInfo = ((JSONObject) bookArray.get(0)).getJSONObject(VOLUME_INFO);
+            final ArrayList<ContentProviderOperation> batch = new ArrayList<>();
+            int done = skipped + misses.size(), added = 0, failed = misses.size(), batched = 0;
+            for (int i = 0; i < eans.size(); i++) {
+                final Pair<String, VolumeInfo> result;
+                try {
+                    // Stalled lookups are ended by the http client's timeouts
+                    result = lookups.take().get();
+                } catch (ExecutionException e) {
+                    Log.e(LOG_TAG, "Lookup failed: " + e.getMessage());
+                    failed++;
+                    done++;
+                    continue;
+                }
 
-            String title = bookInfo.getString(TITLE);
+                done++;
+                addLookupOperation(batch, result.first, result.second != null);
+                if (result.second == null) {
+                    failed++;
+                } else {
+                    addBookOperations(batch, result.first, result.second);
+                    batched++;
+                }
 
-            String subtitle = "";
-            if (bookInfo.has(SUBTITLE)) {
-                subtitle = bookInfo.getString(SUBTITLE);
+                if (batched == IMPORT_BATCH_SIZE) {
+                    if (applyBatch(batch)) {
+                        added += batched;
+                    } else {
+                        failed += batched;
+                    }
+                    batch.clear();
+                    batched = 0;
+                    broadcastImportProgress(total, done, added, failed, false);
+                }
             }
 
-            String desc = "";
-            if (bookInfo.has(DESC)) {
-                desc = bookInfo.getString(DESC);
+            if (!batch.isEmpty()) {
+                if (applyBatch(batch)) {
+                    added += batched;
+                } else {
+                    failed += batched;
+                }
             }
+            broadcastImportProgress(total, done, added, failed, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            String imgUrl = "";
-            if (bookInfo.has(IMG_URL_PATH) && bookInfo.getJSONObject(IMG_URL_PATH).has(IMG_URL)) {
-                imgUrl = bookInfo.getJSONObject(IMG_URL_PATH).getString(IMG_URL);
+    private void readEans(Uri source, Set<String> out) throws IOException {
+        final InputStream in = getContentResolver().openInputStream(source);
+        if (in == null) {
+            throw new IOException("Cannot open " + source);
+        }
+
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String token : EAN_SEPARATOR.split(line)) {
+                    addEan(out, token);
+                }
             }
+        } finally {
+            reader.close();
+        }
+    }
 
-            writeBackBook(ean, title, subtitle, desc, imgUrl);
+    /**
+     * Adds {@code token} as an EAN if it is an ISBN-13 or an ISBN-10, hyphens are ignored.
+     */
+    private void addEan(Set<String> out, String token) {
+        final String ean = Utils.fixEanForISBN13(this, token.replace("-", "").trim());
+        if (ean.length() == 13 && Utils.convertEanStringToLong(ean) > 0) {
+            out.add(ean);
+        }
+    }
 
-            if (bookInfo.has(AUTHORS)) {
-                writeBackAuthors(ean, bookInfo.getJSONArray(AUTHORS));
+    /**
+     * @return those of {@code eans} that have a row at {@code uri} matching {@code selection}
+     */
+    private Set<String> queryEans(Uri uri, String selection, Collection<String> eans) {
+        final Set<String> stored = new HashSet<>();
+        final List<String> all = new ArrayList<>(eans);
+        for (int start = 0; start < all.size(); start += MAX_QUERY_ARGS) {
+            final List<String> chunk = all.subList(start, Math.min(start + MAX_QUERY_ARGS, all.size()));
+            final String inChunk = BaseColumns._ID + " IN (" + makePlaceholders(chunk.size()) + ")";
+            final Cursor cursor = getContentResolver().query(uri,
+                    new String[]{BaseColumns._ID},
+                    selection == null ? inChunk : selection + " AND " + inChunk,
+                    chunk.toArray(new String[chunk.size()]),
+                    null);
+            if (cursor == null) {
+                continue;
             }
-            if (bookInfo.has(CATEGORIES)) {
-                writeBackCategories(ean, bookInfo.getJSONArray(CATEGORIES));
+            try {
+                while (cursor.moveToNext()) {
+                    stored.add(cursor.getString(0));
+                }
+            } finally {
+                cursor.close();
             }
+        }
+        return stored;
+    }
 
-        } catch (JSONException e) {
-            Log.e(LOG_TAG, "Error ", e);
-            setBookServiceStatus(BOOK_SERVICE_STATUS_SERVER_INVALID);
+    private static String makePlaceholders(int count) {
+        final StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ",?");
         }
+        return sb.toString();
     }
 
-    private void writeBackBook(String ean, String title, String subtitle, String desc, String imgUrl) {
-        ContentValues values = new ContentValues();
-        values.put(AlexandriaContract.BookEntry._ID, ean);
-        values.put(AlexandriaContract.BookEntry.TITLE, title);
-        values.put(AlexandriaContract.BookEntry.IMAGE_URL, imgUrl);
-        values.put(AlexandriaContract.BookEntry.SUBTITLE, subtitle);
-        values.put(AlexandriaContract.BookEntry.DESC, desc);
-        getContentResolver().insert(AlexandriaContract.BookEntry.CONTENT_URI, values);
+    private static void addLookupOperation(List<ContentProviderOperation> ops, String ean, boolean found) {
+        ops.add(ContentProviderOperation.newInsert(AlexandriaContract.LookupEntry.CONTENT_URI)
+                .withValue(AlexandriaContract.LookupEntry._ID, ean)
+                .withValue(AlexandriaContract.LookupEntry.FOUND, found ? 1 : 0)
+                .withValue(AlexandriaContract.LookupEntry.FETCHED_AT, System.currentTimeMillis())
+                .build());
     }
 
-    private void writeBackAuthors(String ean, JSONArray jsonArray) throws JSONException {
-        ContentValues values = new ContentValues();
-        for (int i = 0; i < jsonArray.length(); i++) {
-            values.put(AlexandriaContract.AuthorEntry._ID, ean);
-            values.put(AlexandriaContract.AuthorEntry.AUTHOR, jsonArray.getString(i));
-            getContentResolver().insert(AlexandriaContract.AuthorEntry.CONTENT_URI, values);
-            values = new ContentValues();
+    private static void addBookOperations(List<ContentProviderOperation> ops, String ean, VolumeInfo book) {
+        ops.add(ContentProviderOperation.newInsert(AlexandriaContract.BookEntry.CONTENT_URI)
+                .withValue(AlexandriaContract.BookEntry._ID, ean)
+                .withValue(AlexandriaContract.BookEntry.TITLE, book.title)
+                .withValue(AlexandriaContract.BookEntry.IMAGE_URL, book.thumbnail)
+                .withValue(AlexandriaContract.BookEntry.SUBTITLE, book.subtitle)
+                .withValue(AlexandriaContract.BookEntry.DESC, book.description)
+                .build());
+        for (String author : book.authors) {
+            ops.add(ContentProviderOperation.newInsert(AlexandriaContract.AuthorEntry.CONTENT_URI)
+                    .withValue(AlexandriaContract.AuthorEntry._ID, ean)
+                    .withValue(AlexandriaContract.AuthorEntry.AUTHOR, author)
+                    .build());
+        }
+        for (String category : book.categories) {
+            ops.add(ContentProviderOperation.newInsert(AlexandriaContract.CategoryEntry.CONTENT_URI)
+                    .withValue(AlexandriaContract.CategoryEntry._ID, ean)
+                    .withValue(AlexandriaContract.CategoryEntry.CATEGORY, category)
+                    .build());
         }
     }
 
-    private void writeBackCategories(String ean, JSONArray jsonArray) throws JSONException {
-        ContentValues values = new ContentValues();
-        for (int i = 0; i < jsonArray.length(); i++) {
-            values.put(AlexandriaContract.CategoryEntry._ID, ean);
-            values.put(AlexandriaContract.CategoryEntry.CATEGORY, jsonArray.getString(i));
-            getContentResolver().insert(AlexandriaContract.CategoryEntry.CONTENT_URI, values);
-            values = new ContentValues();
+    /**
+     * Stores books in one transaction, so observers see every book with its authors and categories.
+     *
+     * @return whether the batch was stored, a failed batch stores none of its books
+     */
+    private boolean applyBatch(ArrayList<ContentProviderOperation> batch) {
+        try {
+            getContentResolver().applyBatch(AlexandriaContract.CONTENT_AUTHORITY, batch);
+            return true;
+        } catch (RemoteException | OperationApplicationException | SQLException e) {
+            Log.e(LOG_TAG, "Failed to store books", e);
+            return false;
         }
     }
 
+    private void broadcastImportProgress(int total, int done, int added, int failed, boolean finished) {
+        LocalBroadcastManager.getInstance(this).sendBroadcast(new Intent(BROADCAST_IMPORT_PROGRESS)
+                .putExtra(EXTRA_IMPORT_TOTAL, total)
+                .putExtra(EXTRA_IMPORT_DONE, done)
+                .putExtra(EXTRA_IMPORT_ADDED, added)
+                .putExtra(EXTRA_IMPORT_FAILED, failed)
+                .putExtra(EXTRA_IMPORT_FINISHED, finished));
+    }
+
     private void setBookServiceStatus(@BookServiceStatus int status) {
         SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(BookService.this);
         SharedPreferences.Editor e = prefs.edit();
@@ -0,0 +1,26 @@
+package com.ewintory.alexandria.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of a Google Books volume that are stored for a book.
+ */
+final class VolumeInfo {
+    final String title;
+    final String subtitle;
+    final String description;
+    final String thumbnail;
+    final List<String> authors;
+    final List<String> categories;
+
+    VolumeInfo(String title, String subtitle, String description, String thumbnail,
+               List<String> authors, List<String> categories) {
+        this.title = title;
+        this.subtitle = subtitle != null ? subtitle : "";
+        this.description = description != null ? description : "";
+        this.thumbnail = thumbnail != null ? thumbnail : "";
+        this.authors = authors != null ? authors : Collections.<String>emptyList();
+        this.categories = categories != null ? categories : Collections.<String>emptyList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.ewintory.alexandria.service;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the first volume's info out of a Google Books volumes response. Only the fields of
+ * {@link VolumeInfo} are read, everything else is skipped without being buffered.
+ */
+final class VolumeReader {
+    private static final String ITEMS = "items";
+    private static final String VOLUME_INFO = "volumeInfo";
+
+    private static final String TITLE = "title";
+    private static final String SUBTITLE = "subtitle";
+    private static final String AUTHORS = "authors";
+    private static final String DESC = "description";
+    private static final String CATEGORIES = "categories";
+    private static final String IMG_URL_PATH = "imageLinks";
+    private static final String IMG_URL = "thumbnail";
+
+    private VolumeReader() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Reads the response and closes the reader.
+     *
+     * @return the first volume, or {@code null} if the response has no items
+     * @throws IOException           if the response could not be read or is not valid JSON
+     * @throws IllegalStateException if the response is not shaped like a volumes list
+     */
+    static VolumeInfo read(Reader in) throws IOException {
+        final JsonReader reader = new JsonReader(in);
+        try {
+            VolumeInfo volume = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (ITEMS.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    volume = readFirstItem(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return volume;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static VolumeInfo readFirstItem(JsonReader reader) throws IOException {
+        VolumeInfo volume = null;
+        reader.beginArray();
+        if (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (VOLUME_INFO.equals(reader.nextName())) {
+                    volume = readVolumeInfo(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return volume;
+    }
+
+    private static VolumeInfo readVolumeInfo(JsonReader reader) throws IOException {
+        String title = null, subtitle = null, desc = null, imgUrl = null;
+        List<String> authors = null, categories = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (TITLE.equals(name)) {
+                title = reader.nextString();
+            } else if (SUBTITLE.equals(name)) {
+                subtitle = reader.nextString();
+            } else if (DESC.equals(name)) {
+                desc = reader.nextString();
+            } else if (IMG_URL_PATH.equals(name)) {
+                imgUrl = readThumbnail(reader);
+            } else if (AUTHORS.equals(name)) {
+                authors = readStrings(reader);
+            } else if (CATEGORIES.equals(name)) {
+                categories = readStrings(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new VolumeInfo(title, subtitle, desc, imgUrl, authors, categories);
+    }
+
+    private static String readThumbnail(JsonReader reader) throws IOException {
+        String thumbnail = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (IMG_URL.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                thumbnail = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return thumbnail;
+    }
+
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        final List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+        reader.endArray();
+        return values;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores;
+
+import com.ewintory.footballscores.util.Utilities;
+
+/**
+ * Generates the teams and leagues of the i-th fixture for the benchmarks, so they all work on
+ * the same realistic names.
+ */
+public final class TestFixtures {
+
+    private static final String[] TEAMS = {
+            "Arsenal London FC", "Manchester United FC", "Swansea City", "Leicester City",
+            "Everton FC", "FC Bayern M\u00fcnchen", "Juventus Turin", "Stoke City FC"
+    };
+    private static final int[] LEAGUES = {
+            Utilities.Leagues.PREMIER_LEAGUE, Utilities.Leagues.BUNDESLIGA1,
+            Utilities.Leagues.SERIE_A, Utilities.Leagues.CHAMPIONS_LEAGUE
+    };
+
+    // Offset of the away team from the home team, so no team plays itself
+    private static final int AWAY_OFFSET = 3;
+    private static final long FIRST_TEAM_ID = 50;
+
+    private TestFixtures() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static String getHomeTeam(int i) {
+        return TEAMS[i % TEAMS.length];
+    }
+
+    public static String getAwayTeam(int i) {
+        return TEAMS[(i + AWAY_OFFSET) % TEAMS.length];
+    }
+
+    public static long getHomeTeamId(int i) {
+        return FIRST_TEAM_ID + i % TEAMS.length;
+    }
+
+    public static long getAwayTeamId(int i) {
+        return FIRST_TEAM_ID + (i + AWAY_OFFSET) % TEAMS.length;
+    }
+
+    public static String getCrestUrl(long teamId) {
+        return "http://upload.wikimedia.org/crest" + teamId + ".svg";
+    }
+
+    public static int getLeague(int i) {
+        return LEAGUES[i % LEAGUES.length];
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.ewintory.footballscores.TestFixtures;
+import com.ewintory.footballscores.provider.ScoresContract.ScoreEntry;
+
+/**
+ * Compares the throughput of ingesting fixtures row by row with {@link SQLiteDatabase#insertWithOnConflict},
+ * as the sync used to, against the {@link ScoresBatchWriter}. Both write into an empty in-memory
+ * database inside one transaction. Results go to logcat.
+ */
+public class ScoresIngestBenchmark extends AndroidTestCase {
+    private static final String TAG = ScoresIngestBenchmark.class.getSimpleName();
+
+    private static final int[] SIZES = {1000, 10000, 100000};
+    private static final int WARMUP_ROWS = 1000;
+
+    private static final long FIRST_KICKOFF = 1445000000000L;
+
+    private ScoresDBHelper mHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mHelper = new ScoresDBHelper(getContext());
+    }
+
+    public void testUpdateKeepsMissingColumns() {
+        final SQLiteDatabase db = createDatabase();
+        try {
+            final ContentValues stored = createFixture(1);
+            final ContentValues score = new ContentValues();
+            score.put(ScoreEntry.COLUMN_MATCH_ID, stored.getAsLong(ScoreEntry.COLUMN_MATCH_ID));
+            score.put(ScoreEntry.COLUMN_HOME_GOALS, 2);
+
+            final ScoresBatchWriter writer = new ScoresBatchWriter(db);
+            try {
+                assertTrue(writer.insert(stored));
+                assertTrue(writer.update(score, stored));
+            } finally {
+                writer.close();
+            }
+
+            assertEquals(1, DatabaseUtils.queryNumEntries(db, ScoreEntry.TABLE_NAME));
+            assertEquals("2", DatabaseUtils.stringForQuery(db, "SELECT " + ScoreEntry.COLUMN_HOME_GOALS
+                    + " FROM " + ScoreEntry.TABLE_NAME, null));
+            assertEquals(stored.getAsString(ScoreEntry.COLUMN_HOME), DatabaseUtils.stringForQuery(db,
+                    "SELECT " + ScoreEntry.COLUMN_HOME + " FROM " + ScoreEntry.TABLE_NAME, null));
+        } finally {
+            db.close();
+        }
+    }
+
+    public void testRowBreakingConstraintIsSkipped() {
+        final SQLiteDatabase db = createDatabase();
+        try {
+            final ContentValues invalid = createFixture(1);
+            invalid.putNull(ScoreEntry.COLUMN_HOME);
+            final ContentValues stored = createFixture(2);
+            final ContentValues invalidUpdate = new ContentValues();
+            invalidUpdate.put(ScoreEntry.COLUMN_MATCH_ID, stored.getAsLong(ScoreEntry.COLUMN_MATCH_ID));
+            invalidUpdate.putNull(ScoreEntry.COLUMN_AWAY);
+
+            final ScoresBatchWriter writer = new ScoresBatchWriter(db);
+            db.beginTransaction();
+            try {
+                assertFalse(writer.insert(invalid));
+                assertTrue(writer.insert(stored));
+                assertFalse(writer.update(invalidUpdate, stored));
+                assertTrue(writer.insert(createFixture(3)));
+                db.setTransactionSuccessful();
+            } finally {
+                writer.close();
+                db.endTransaction();
+            }
+
+            assertEquals(2, DatabaseUtils.queryNumEntries(db, ScoreEntry.TABLE_NAME));
+            assertEquals(stored.getAsString(ScoreEntry.COLUMN_AWAY), DatabaseUtils.stringForQuery(db,
+                    "SELECT " + ScoreEntry.COLUMN_AWAY + " FROM " + ScoreEntry.TABLE_NAME + " WHERE "
+                            + ScoreEntry.COLUMN_MATCH_ID + " = " + stored.getAsLong(ScoreEntry.COLUMN_MATCH_ID), null));
+        } finally {
+            db.close();
+        }
+    }
+
+    public void testIngestThroughput() {
+        ingest(createFixtures(WARMUP_ROWS), false);
+        ingest(createFixtures(WARMUP_ROWS), true);
+
+        for (int size : SIZES) {
+            final ContentValues[] fixtures = createFixtures(size);
+            final long rowByRowNanos = ingest(fixtures, false);
+            final long batchNanos = ingest(fixtures, true);
+
+            Log.i(TAG, String.format("%d fixtures: row by row %d rows/s, batch writer %d rows/s (%.1fx)",
+                    size, perSecond(size, rowByRowNanos), perSecond(size, batchNanos),
+                    (double) rowByRowNanos / batchNanos));
+        }
+    }
+
+    private long ingest(ContentValues[] fixtures, boolean batch) {
+        final SQLiteDatabase db = createDatabase();
+        try {
+            final long start = System.nanoTime();
+            final ScoresBatchWriter writer = new ScoresBatchWriter(db);
+            db.beginTransaction();
+            try {
+                for (ContentValues fixture : fixtures) {
+                    if (batch)
+                        writer.insert(fixture);
+                    else
+                        db.insertWithOnConflict(ScoreEntry.TABLE_NAME, null, fixture,
+                                SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                writer.close();
+                db.endTransaction();
+            }
+            final long nanos = System.nanoTime() - start;
+
+            assertEquals(fixtures.length, DatabaseUtils.queryNumEntries(db, ScoreEntry.TABLE_NAME));
+            return nanos;
+        } finally {
+            db.close();
+        }
+    }
+
+    private SQLiteDatabase createDatabase() {
+        final SQLiteDatabase db = SQLiteDatabase.create(null);
+        mHelper.onCreate(db);
+        return db;
+    }
+
+    private static long perSecond(int rows, long nanos) {
+        return rows * 1000000000L / Math.max(nanos, 1);
+    }
+
+    private static ContentValues[] createFixtures(int count) {
+        final ContentValues[] fixtures = new ContentValues[count];
+        for (int i = 0; i < count; i++) {
+            fixtures[i] = createFixture(i);
+        }
+        return fixtures;
+    }
+
+    private static ContentValues createFixture(int i) {
+        final ContentValues values = new ContentValues();
+        values.put(ScoreEntry.COLUMN_MATCH_ID, 140000L + i);
+        values.put(ScoreEntry.COLUMN_DATE, FIRST_KICKOFF + i * 60000L);
+        values.put(ScoreEntry.COLUMN_HOME, TestFixtures.getHomeTeam(i));
+        values.put(ScoreEntry.COLUMN_AWAY, TestFixtures.getAwayTeam(i));
+        values.put(ScoreEntry.COLUMN_HOME_ID, TestFixtures.getHomeTeamId(i));
+        values.put(ScoreEntry.COLUMN_AWAY_ID, TestFixtures.getAwayTeamId(i));
+        values.put(ScoreEntry.COLUMN_HOME_CREST, TestFixtures.getCrestUrl(TestFixtures.getHomeTeamId(i)));
+        values.put(ScoreEntry.COLUMN_AWAY_CREST, TestFixtures.getCrestUrl(TestFixtures.getAwayTeamId(i)));
+        values.put(ScoreEntry.COLUMN_HOME_GOALS, i % 4);
+        values.put(ScoreEntry.COLUMN_AWAY_GOALS, i % 3);
+        values.put(ScoreEntry.COLUMN_LEAGUE, TestFixtures.getLeague(i));
+        values.put(ScoreEntry.COLUMN_LEAGUE_CAPTION, "League " + TestFixtures.getLeague(i));
+        values.put(ScoreEntry.COLUMN_MATCH_DAY, 1 + i % 38);
+        values.put(ScoreEntry.COLUMN_STATUS, ScoresContract.MatchStatus.FINISHED);
+        return values;
+    }
+}
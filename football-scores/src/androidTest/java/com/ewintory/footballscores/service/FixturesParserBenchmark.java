@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.service;
+
+import android.content.ContentValues;
+import android.os.Debug;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.ewintory.footballscores.network.FixturesParser;
+import com.ewintory.footballscores.network.model.Fixture;
+import com.ewintory.footballscores.network.model.FixtureRow;
+import com.ewintory.footballscores.network.model.FixturesResponse;
+import com.ewintory.footballscores.provider.ScoresContract;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import retrofit.client.Header;
+import retrofit.client.Response;
+import retrofit.mime.TypedByteArray;
+
+/**
+ * Compares decoding a 10k fixtures payload with the Gson model against {@link FixturesParser},
+ * and measures the path the sync takes, {@link FetchService#parseFixtures}, which also builds
+ * the provider rows. Results go to logcat.
+ */
+public class FixturesParserBenchmark extends AndroidTestCase {
+    private static final String TAG = FixturesParserBenchmark.class.getSimpleName();
+
+    private static final String API_URL = "http://api.football-data.org/alpha";
+
+    private static final int FIXTURES = 10000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    private String mPayload;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        StringBuilder json = new StringBuilder(FIXTURES * 512);
+        json.append("{\"timeFrameStart\":\"2015-09-10\",\"timeFrameEnd\":\"2015-09-13\",\"count\":")
+                .append(FIXTURES).append(",\"fixtures\":[");
+        for (int i = 0; i < FIXTURES; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"_links\":{")
+                    .append("\"self\":{\"href\":\"").append(API_URL).append("/fixtures/").append(140000 + i).append("\"},")
+                    .append("\"soccerseason\":{\"href\":\"").append(API_URL).append("/soccerseasons/398\"},")
+                    .append("\"homeTeam\":{\"href\":\"").append(API_URL).append("/teams/").append(i % 20).append("\"},")
+                    .append("\"awayTeam\":{\"href\":\"").append(API_URL).append("/teams/").append((i + 1) % 20).append("\"}},")
+                    .append("\"date\":\"2015-09-12T14:00:00Z\",\"status\":\"FINISHED\",\"matchday\":").append(i % 38 + 1)
+                    .append(",\"homeTeamName\":\"Home Team ").append(i % 20)
+                    .append("\",\"awayTeamName\":\"Away Team ").append((i + 1) % 20)
+                    .append("\",\"result\":{\"goalsHomeTeam\":").append(i % 4)
+                    .append(",\"goalsAwayTeam\":").append(i % 3).append("}}");
+        }
+        mPayload = json.append("]}").toString();
+    }
+
+    public void testParsersAgree() throws IOException {
+        final FixturesResponse response = new Gson().fromJson(mPayload, FixturesResponse.class);
+        final Fixture last = response.getFixtures().get(FIXTURES - 1);
+
+        final List<ContentValues> rows = parseFixtures();
+
+        assertEquals(response.getFixtures().size(), rows.size());
+        final ContentValues lastRow = rows.get(FIXTURES - 1);
+        assertEquals(last.getLinks().getSelf().getHref(),
+                API_URL + "/fixtures/" + lastRow.getAsLong(ScoresContract.ScoreEntry.COLUMN_MATCH_ID));
+        assertEquals(last.getHomeTeamName(), lastRow.getAsString(ScoresContract.ScoreEntry.COLUMN_HOME));
+        assertEquals(last.getResult().getGoalsHomeTeam().intValue(),
+                lastRow.getAsInteger(ScoresContract.ScoreEntry.COLUMN_HOME_GOALS).intValue());
+        assertEquals(last.getMatchDay().intValue(),
+                lastRow.getAsInteger(ScoresContract.ScoreEntry.COLUMN_MATCH_DAY).intValue());
+    }
+
+    public void testBenchmark() throws Exception {
+        final Gson gson = new Gson();
+        final FixturesParser.Handler handler = new FixturesParser.Handler() {
+            @Override public void onFixture(FixtureRow row) { }
+        };
+
+        measure("Gson model", new Callable<Object>() {
+            @Override public Object call() {
+                return gson.fromJson(new StringReader(mPayload), FixturesResponse.class);
+            }
+        });
+        measure("FixturesParser", new Callable<Object>() {
+            @Override public Object call() throws IOException {
+                return FixturesParser.parse(new StringReader(mPayload), handler);
+            }
+        });
+        measure("parseFixtures", new Callable<Object>() {
+            @Override public Object call() throws IOException {
+                return parseFixtures();
+            }
+        });
+    }
+
+    private List<ContentValues> parseFixtures() throws IOException {
+        final Response response = new Response(API_URL + "/fixtures", 200, "OK",
+                Collections.<Header>emptyList(), new TypedByteArray("application/json", mPayload.getBytes("UTF-8")));
+        return FetchService.parseFixtures("benchmark", response, null,
+                Collections.<Long, String>emptyMap(), Collections.<Integer, String>emptyMap());
+    }
+
+    /**
+     * @param path returns whatever the decode path keeps reachable once it is done
+     */
+    @SuppressWarnings("deprecation")
+    private static void measure(String name, Callable<Object> path) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            path.call();
+        }
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocSize();
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            path.call();
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        final long bytes = Debug.getThreadAllocSize();
+        Debug.stopAllocCounting();
+
+        final long heapBefore = usedHeap();
+        Object result = path.call();
+        final long retained = usedHeap() - heapBefore;
+
+        Log.i(TAG, String.format("%-16s %8.2f ms/op %12d bytes/op %12d bytes retained (%d fixtures, %s)",
+                name, nanos / 1e6 / ROUNDS, bytes / ROUNDS, retained, FIXTURES, result.getClass().getSimpleName()));
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
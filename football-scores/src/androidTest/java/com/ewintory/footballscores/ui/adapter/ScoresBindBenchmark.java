@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.adapter;
+
+import android.content.res.Resources;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.ewintory.footballscores.R;
+import com.ewintory.footballscores.TestFixtures;
+import com.ewintory.footballscores.util.Utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the time spent in binding a score card: formatting cursor columns on every bind, as
+ * the adapter used to, against assigning a {@link ScoreRow} built on the loader thread. Crest
+ * loading is the same for both paths and left out. Results go to logcat.
+ */
+public class ScoresBindBenchmark extends AndroidTestCase {
+    private static final String TAG = ScoresBindBenchmark.class.getSimpleName();
+
+    private static final int ROWS = 50;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 2000;
+
+    private Views mViews;
+    private Cursor mCursor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        View item = LayoutInflater.from(new ContextThemeWrapper(getContext(), R.style.FootballTheme))
+                .inflate(R.layout.item_score, null, false);
+        mViews = new Views(item);
+        mCursor = createCursor();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mCursor.close();
+        super.tearDown();
+    }
+
+    public void testRowsMatchCursorFormatting() {
+        final Resources res = getContext().getResources();
+        final List<ScoreRow> rows = createRows();
+
+        for (int i = 0; i < ROWS; i++) {
+            mCursor.moveToPosition(i);
+            ScoreRow row = rows.get(i);
+            assertEquals(Utilities.getLeague(res, mCursor.getInt(ScoresAdapter.ScoresQuery.LEAGUE)), row.getLeagueName());
+            assertEquals(res.getString(R.string.match_day, mCursor.getInt(ScoresAdapter.ScoresQuery.MATCH_DAY)), row.getMatchDay());
+            assertEquals(Utilities.getTeamCrestByTeamName(mCursor.getString(ScoresAdapter.ScoresQuery.HOME)), row.getHomeCrestRes());
+        }
+    }
+
+    public void testBindTime() {
+        final List<ScoreRow> rows = createRows();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bindFromCursor(i % ROWS);
+            bindFromRow(rows.get(i % ROWS));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bindFromCursor(i % ROWS);
+        }
+        final long cursorNanos = (System.nanoTime() - start) / ROUNDS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bindFromRow(rows.get(i % ROWS));
+        }
+        final long rowNanos = (System.nanoTime() - start) / ROUNDS;
+
+        start = System.nanoTime();
+        createRows();
+        final long buildNanos = (System.nanoTime() - start) / ROWS;
+
+        Log.i(TAG, String.format("Bind from cursor: %d ns/bind, from row: %d ns/bind, "
+                + "building a row off the main thread: %d ns", cursorNanos, rowNanos, buildNanos));
+    }
+
+    private void bindFromCursor(int position) {
+        final Resources res = getContext().getResources();
+        mCursor.moveToPosition(position);
+
+        mViews.mLeagueName.setText(Utilities.getLeague(res, mCursor.getInt(ScoresAdapter.ScoresQuery.LEAGUE)));
+        mViews.mHomeName.setText(mCursor.getString(ScoresAdapter.ScoresQuery.HOME));
+        mViews.mAwayName.setText(mCursor.getString(ScoresAdapter.ScoresQuery.AWAY));
+        mViews.mMatchDay.setText(res.getString(R.string.match_day,
+                mCursor.getInt(ScoresAdapter.ScoresQuery.MATCH_DAY)));
+        mViews.mScore.setText(Utilities.getScores(res,
+                mCursor.getInt(ScoresAdapter.ScoresQuery.HOME_GOALS),
+                mCursor.getInt(ScoresAdapter.ScoresQuery.AWAY_GOALS)));
+        mViews.mHomeCrest.setImageResource(Utilities.getTeamCrestByTeamName(
+                mCursor.getString(ScoresAdapter.ScoresQuery.HOME)));
+        mViews.mAwayCrest.setImageResource(Utilities.getTeamCrestByTeamName(
+                mCursor.getString(ScoresAdapter.ScoresQuery.AWAY)));
+    }
+
+    private void bindFromRow(ScoreRow row) {
+        mViews.mLeagueName.setText(row.getLeagueName());
+        mViews.mHomeName.setText(row.getHomeName());
+        mViews.mAwayName.setText(row.getAwayName());
+        mViews.mMatchDay.setText(row.getMatchDay());
+        mViews.mScore.setText(row.getScore());
+        mViews.mHomeCrest.setImageResource(row.getHomeCrestRes());
+        mViews.mAwayCrest.setImageResource(row.getAwayCrestRes());
+    }
+
+    private List<ScoreRow> createRows() {
+        final ScoreRow.Factory factory = new ScoreRow.Factory(getContext().getResources());
+        factory.onLoadStarted();
+
+        final List<ScoreRow> rows = new ArrayList<>(ROWS);
+        mCursor.moveToPosition(-1);
+        while (mCursor.moveToNext()) {
+            rows.add(factory.create(mCursor));
+        }
+        return rows;
+    }
+
+    private static Cursor createCursor() {
+        MatrixCursor cursor = new MatrixCursor(ScoresAdapter.ScoresQuery.PROJECTION, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            cursor.addRow(new Object[]{
+                    TestFixtures.getLeague(i),
+                    TestFixtures.getHomeTeam(i),
+                    TestFixtures.getAwayTeam(i),
+                    i % 4,
+                    i % 3 - 1,
+                    1 + i % 38,
+                    null,
+                    null,
+                    1000L + i
+            });
+        }
+        return cursor;
+    }
+
+    private static final class Views {
+        final TextView mLeagueName;
+        final TextView mHomeName;
+        final TextView mAwayName;
+        final TextView mMatchDay;
+        final TextView mScore;
+        final ImageView mHomeCrest;
+        final ImageView mAwayCrest;
+
+        Views(View item) {
+            mLeagueName = (TextView) item.findViewById(R.id.score_item_league);
+            mHomeName = (TextView) item.findViewById(R.id.score_item_home_name);
+            mAwayName = (TextView) item.findViewById(R.id.score_item_away_name);
+            mMatchDay = (TextView) item.findViewById(R.id.score_item_matchday);
+            mScore = (TextView) item.findViewById(R.id.score_item_score);
+            mHomeCrest = (ImageView) item.findViewById(R.id.score_item_home_crest);
+            mAwayCrest = (ImageView) item.findViewById(R.id.score_item_away_crest);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util;
+
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Compares the day lookup of a kickoff with {@link FixtureTimeConverter}, as the sync does it,
+ * against the SimpleDateFormat round trip FetchService used before. Results go to logcat.
+ */
+public class FixtureTimeConverterBenchmark extends AndroidTestCase {
+    private static final String TAG = FixtureTimeConverterBenchmark.class.getSimpleName();
+
+    private static final int TIMESTAMPS = 1000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int ROUNDS = 200;
+
+    public void testBenchmark() throws Exception {
+        final String[] timestamps = new String[TIMESTAMPS];
+        final SimpleDateFormat utc = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        utc.setTimeZone(TimeZone.getTimeZone("UTC"));
+        for (int i = 0; i < TIMESTAMPS; i++) {
+            timestamps[i] = utc.format(new Date(1442066400000L + i * 15 * 60 * 1000L));
+        }
+
+        final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += runLegacy(timestamps) + runConverter(converter, timestamps);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += runLegacy(timestamps);
+        }
+        final long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += runConverter(converter, timestamps);
+        }
+        final long converterNanos = System.nanoTime() - start;
+
+        Log.i(TAG, String.format("SimpleDateFormat     %8.1f ns/op", legacyNanos / (double) (ROUNDS * TIMESTAMPS)));
+        Log.i(TAG, String.format("FixtureTimeConverter %8.1f ns/op (sink %d)", converterNanos / (double) (ROUNDS * TIMESTAMPS), sink));
+    }
+
+    private static long runConverter(FixtureTimeConverter converter, String[] timestamps) {
+        long sum = 0;
+        for (String timestamp : timestamps) {
+            sum += converter.toLocalEpochDay(FixtureTimeConverter.parseUtcMillis(timestamp));
+        }
+        return sum;
+    }
+
+    /**
+     * The per fixture conversion FetchService.processFixtures did before {@link FixtureTimeConverter}.
+     */
+    private static long runLegacy(String[] timestamps) throws Exception {
+        long sum = 0;
+        for (String timestamp : timestamps) {
+            String matchDate = timestamp;
+            String matchTime = matchDate.substring(matchDate.indexOf("T") + 1, matchDate.indexOf("Z"));
+            matchDate = matchDate.substring(0, matchDate.indexOf("T"));
+            SimpleDateFormat matchDateFormat = new SimpleDateFormat("yyyy-MM-ddHH:mm:ss", Locale.US);
+            matchDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            Date parseddate = matchDateFormat.parse(matchDate + matchTime);
+            SimpleDateFormat new_date = new SimpleDateFormat("yyyy-MM-dd:HH:mm", Locale.US);
+            new_date.setTimeZone(TimeZone.getDefault());
+            matchDate = new_date.format(parseddate);
+            matchTime = matchDate.substring(matchDate.indexOf(":") + 1);
+            matchDate = matchDate.substring(0, matchDate.indexOf(":"));
+            sum += matchDate.length() + matchTime.length();
+        }
+        return sum;
+    }
+}
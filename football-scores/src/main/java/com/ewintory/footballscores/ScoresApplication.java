@@ -19,12 +19,36 @@ package com.ewintory.footballscores;
 import android.app.Application;
 import android.content.Context;
 
+import com.ewintory.footballscores.network.FootballApi;
+import com.ewintory.footballscores.network.NotModifiedInterceptor;
+import com.ewintory.footballscores.network.RateLimitInterceptor;
+import com.ewintory.footballscores.util.TokenBucket;
 import com.squareup.leakcanary.LeakCanary;
 import com.squareup.leakcanary.RefWatcher;
+import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.OkHttpClient;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import retrofit.Endpoints;
+import retrofit.RequestInterceptor;
+import retrofit.RestAdapter;
+import retrofit.client.OkClient;
 
 public final class ScoresApplication extends Application {
 
+    private static final String API_URL = "http://api.football-data.org/alpha";
+
+    private static final String HTTP_CACHE_DIR = "http";
+    private static final long HTTP_CACHE_SIZE = 5 * 1024 * 1024;
+
+    // football-data.org request quota per api key, bursts are kept below it
+    private static final int REQUESTS_PER_MINUTE = 50;
+    private static final int REQUESTS_BURST = 10;
+
     private RefWatcher mRefWatcher;
+    private FootballApi mFootballApi;
 
     public static ScoresApplication get(Context context) {
         return (ScoresApplication) context.getApplicationContext();
@@ -40,6 +64,37 @@ public final class ScoresApplication extends Application {
         return mRefWatcher;
     }
 
+    /**
+     * The api is shared by all components, because OkHttp allows one {@link Cache}
+     * instance per cache directory and all requests draw from one request budget.
+     */
+    public synchronized FootballApi getFootballApi() {
+        if (mFootballApi == null) {
+            final Cache cache = new Cache(new File(getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE);
+            final OkHttpClient client = new OkHttpClient();
+            client.setCache(cache);
+            client.interceptors().add(new NotModifiedInterceptor(cache));
+            client.networkInterceptors().add(new RateLimitInterceptor(
+                    new TokenBucket(REQUESTS_BURST, REQUESTS_PER_MINUTE, 1, TimeUnit.MINUTES)));
+
+            final RestAdapter restAdapter = new RestAdapter.Builder()
+                    .setEndpoint(Endpoints.newFixedEndpoint(API_URL))
+                    .setClient(new OkClient(client))
+                    .setLogLevel(RestAdapter.LogLevel.BASIC)
+                    .setRequestInterceptor(new RequestInterceptor() {
+                        @Override public void intercept(RequestFacade request) {
+                            request.addHeader("X-Auth-Token", BuildConfig.FOOTBALL_DATA_API_KEY);
+                            // Always revalidate, so a refresh costs a 304 when nothing changed
+                            request.addHeader("Cache-Control", "no-cache");
+                        }
+                    })
+                    .build();
+
+            mFootballApi = restAdapter.create(FootballApi.class);
+        }
+        return mFootballApi;
+    }
+
     protected RefWatcher installLeakCanary() {
         return LeakCanary.install(this);
         //return RefWatcher.DISABLED;
@@ -16,12 +16,16 @@
 
 package com.ewintory.footballscores.appwidget;
 
+import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.appwidget.AppWidgetProvider;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.widget.RemoteViews;
 
@@ -31,6 +35,15 @@ import com.ewintory.footballscores.ui.activity.MainActivity;
 
 public final class ScoresWidgetProvider extends AppWidgetProvider {
 
+    private static final String ACTION_REFRESH_WIDGETS = "com.ewintory.footballscores.action.REFRESH_WIDGETS";
+
+    private static final String PREF_REFRESH_PENDING_SINCE = "widget_refresh_pending_since";
+
+    // Updates arriving within this window are redrawn together
+    private static final long REFRESH_DEBOUNCE_MILLIS = 3000;
+    // A steady stream of updates still redraws this often
+    private static final long REFRESH_MAX_DELAY_MILLIS = 15000;
+
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
         for (int appWidgetId : appWidgetIds) {
@@ -51,9 +64,38 @@ public final class ScoresWidgetProvider extends AppWidgetProvider {
     public void onReceive(@NonNull Context context, @NonNull Intent intent) {
         super.onReceive(context, intent);
         if (FetchService.BROADCAST_DATA_UPDATED.equals(intent.getAction())) {
+            scheduleRefresh(context);
+        } else if (ACTION_REFRESH_WIDGETS.equals(intent.getAction())) {
+            PreferenceManager.getDefaultSharedPreferences(context).edit()
+                    .remove(PREF_REFRESH_PENDING_SINCE).apply();
+
             AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
             int[] appWidgetIds = appWidgetManager.getAppWidgetIds(new ComponentName(context, getClass()));
             appWidgetManager.notifyAppWidgetViewDataChanged(appWidgetIds, R.id.scores_list);
         }
     }
+
+    /**
+     * Debounces data updates: every update moves the pending redraw {@link #REFRESH_DEBOUNCE_MILLIS}
+     * ahead, up to {@link #REFRESH_MAX_DELAY_MILLIS} after the first pending update. The alarm
+     * doesn't wake the device, a redraw while the screen is off waits for the next wake up.
+     */
+    private static void scheduleRefresh(Context context) {
+        final SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        final long now = SystemClock.elapsedRealtime();
+
+        long pendingSince = prefs.getLong(PREF_REFRESH_PENDING_SINCE, 0);
+        if (pendingSince == 0 || pendingSince > now) { // none pending, or left from before a reboot
+            pendingSince = now;
+            prefs.edit().putLong(PREF_REFRESH_PENDING_SINCE, pendingSince).apply();
+        }
+
+        final long triggerAt = Math.min(now + REFRESH_DEBOUNCE_MILLIS, pendingSince + REFRESH_MAX_DELAY_MILLIS);
+        final PendingIntent operation = PendingIntent.getBroadcast(context, 0,
+                new Intent(context, ScoresWidgetProvider.class).setAction(ACTION_REFRESH_WIDGETS),
+                PendingIntent.FLAG_UPDATE_CURRENT);
+
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        alarmManager.set(AlarmManager.ELAPSED_REALTIME, triggerAt, operation);
+    }
 }
\ No newline at end of file
@@ -17,125 +17,93 @@
 package com.ewintory.footballscores.appwidget;
 
 import android.content.Intent;
-import android.database.Cursor;
-import android.net.Uri;
 import android.os.Binder;
+import android.support.v4.util.LongSparseArray;
 import android.util.Log;
 import android.widget.AdapterView;
 import android.widget.RemoteViews;
 import android.widget.RemoteViewsService;
 
 import com.ewintory.footballscores.R;
-import com.ewintory.footballscores.provider.ScoresContract;
 import com.ewintory.footballscores.util.Utilities;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Serves today's matches from the {@link TodaySnapshot} kept by the fetch pipeline. Row views are
+ * cached by match id and rebuilt only when the row's content changed.
+ */
 public final class ScoresWidgetRemoteViewsService extends RemoteViewsService {
     public static final String TAG = ScoresWidgetRemoteViewsService.class.getSimpleName();
 
-    private interface ScoresQuery {
-        String[] PROJECTION = {
-                ScoresContract.ScoreEntry.COLUMN_LEAGUE,
-                ScoresContract.ScoreEntry.COLUMN_HOME,
-                ScoresContract.ScoreEntry.COLUMN_AWAY,
-                ScoresContract.ScoreEntry.COLUMN_HOME_GOALS,
-                ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS,
-                ScoresContract.ScoreEntry.COLUMN_MATCH_DAY,
-                ScoresContract.ScoreEntry.COLUMN_MATCH_ID
-        };
-
-        int LEAGUE = 0;
-        int HOME = 1;
-        int AWAY = 2;
-        int HOME_GOALS = 3;
-        int AWAY_GOALS = 4;
-        int MATCH_DAY = 5;
-        int MATCH_ID = 6;
-    }
-
     @Override
     public RemoteViewsFactory onGetViewFactory(Intent intent) {
         return new RemoteViewsFactory() {
-            private Cursor mCursor = null;
+            private TodaySnapshotStore mStore;
+            private List<TodaySnapshot.Row> mRows = Collections.emptyList();
+
+            // Views built for the rows, by match id
+            private LongSparseArray<CachedViews> mViews = new LongSparseArray<>();
 
             @Override
             public void onCreate() {
-                Log.d(TAG, "onCreate");
+                mStore = new TodaySnapshotStore(ScoresWidgetRemoteViewsService.this);
             }
 
             @Override
             public void onDataSetChanged() {
-                Log.d(TAG, "onDataSetChanged");
-                if (mCursor != null) {
-                    mCursor.close();
+                TodaySnapshot snapshot = mStore.load();
+                if (snapshot == null || snapshot.getDay() != TodaySnapshotStore.getToday()) {
+                    // No fetch since the day changed. This method is called by the app hosting
+                    // the widget (e.g., the launcher), our ContentProvider is not exported, so
+                    // the calling identity is cleared to query it with our own
+                    final long identityToken = Binder.clearCallingIdentity();
+                    try {
+                        mStore.update();
+                    } finally {
+                        Binder.restoreCallingIdentity(identityToken);
+                    }
+                    snapshot = mStore.load();
+                }
+
+                mRows = snapshot != null ? snapshot.getRows() : Collections.<TodaySnapshot.Row>emptyList();
+
+                // Drop the views of matches that are gone
+                final LongSparseArray<CachedViews> views = new LongSparseArray<>(mRows.size());
+                for (TodaySnapshot.Row row : mRows) {
+                    final CachedViews cached = mViews.get(row.getMatchId());
+                    if (cached != null)
+                        views.put(row.getMatchId(), cached);
                 }
-                // This method is called by the app hosting the widget (e.g., the launcher)
-                // However, our ContentProvider is not exported so it doesn't have access to the
-                // mCursor. Therefore we need to clear (and finally restore) the calling identity so
-                // that calls use our process and permission
-                final long identityToken = Binder.clearCallingIdentity();
-                Uri uri = ScoresContract.ScoreEntry.buildScoreWithDate();
-                String formatString = getString(R.string.date_format_ymd);
-                SimpleDateFormat format = new SimpleDateFormat(formatString);
-                String todayDate = format.format(new Date());
-
-                mCursor = getContentResolver().query(uri,
-                        ScoresQuery.PROJECTION,
-                        null,
-                        new String[]{todayDate},
-                        null);
-                Binder.restoreCallingIdentity(identityToken);
+                mViews = views;
+                Log.v(TAG, String.format("Data set changed, %d rows, %d cached views", mRows.size(), mViews.size()));
             }
 
             @Override
             public void onDestroy() {
-                if (mCursor != null) {
-                    mCursor.close();
-                    mCursor = null;
-                }
+                mRows = Collections.emptyList();
+                mViews.clear();
             }
 
             @Override
             public int getCount() {
-                return mCursor == null ? 0 : mCursor.getCount();
+                return mRows.size();
             }
 
             @Override
             public RemoteViews getViewAt(int position) {
-                if (position == AdapterView.INVALID_POSITION ||
-                        mCursor == null || !mCursor.moveToPosition(position)) {
+                if (position == AdapterView.INVALID_POSITION || position >= mRows.size()) {
                     return null;
                 }
-                final RemoteViews views = new RemoteViews(getPackageName(), R.layout.widget_item_score);
-
-                String league = Utilities.getLeague(getResources(), mCursor.getInt(ScoresQuery.LEAGUE));
-                Log.d(TAG, "league=" + league);
-                String matchDay = getString(R.string.match_day, mCursor.getString(ScoresQuery.MATCH_DAY));
-                String homeTeamName = mCursor.getString(ScoresQuery.HOME);
-                String awayTeamName = mCursor.getString(ScoresQuery.AWAY);
-                String score = Utilities.getScores(getResources(),
-                        mCursor.getInt(ScoresQuery.HOME_GOALS), mCursor.getInt(ScoresQuery.AWAY_GOALS));
-
-                views.setTextViewText(R.id.widget_item_league, league);
-                views.setTextViewText(R.id.widget_item_home_name, homeTeamName);
-                views.setTextViewText(R.id.widget_item_away_name, awayTeamName);
-                views.setTextViewText(R.id.widget_item_score, score);
-                views.setTextViewText(R.id.widget_item_matchday, matchDay);
-
-                views.setImageViewResource(R.id.widget_item_home_crest, Utilities.getTeamCrestByTeamName(homeTeamName));
-                views.setImageViewResource(R.id.widget_item_away_crest, Utilities.getTeamCrestByTeamName(awayTeamName));
-
-                views.setContentDescription(R.id.widget_item_home_crest, homeTeamName);
-                views.setContentDescription(R.id.widget_item_away_crest, awayTeamName);
-                views.setContentDescription(R.id.widget_item_home_name, homeTeamName);
-                views.setContentDescription(R.id.widget_item_away_name, awayTeamName);
-                views.setContentDescription(R.id.widget_item_league, league);
-                views.setContentDescription(R.id.widget_item_matchday, matchDay);
-                views.setContentDescription(R.id.widget_item_score, score);
-
-                return views;
+
+                final TodaySnapshot.Row row = mRows.get(position);
+                CachedViews cached = mViews.get(row.getMatchId());
+                if (cached == null || !cached.mRow.equals(row)) {
+                    cached = new CachedViews(row, buildViews(row));
+                    mViews.put(row.getMatchId(), cached);
+                }
+                return cached.mViews;
             }
 
             @Override
@@ -150,9 +118,7 @@ public final class ScoresWidgetRemoteViewsService extends RemoteViewsService {
 
             @Override
             public long getItemId(int position) {
-                if (mCursor.moveToPosition(position))
-                    return mCursor.getLong(ScoresQuery.MATCH_ID);
-                return position;
+                return position < mRows.size() ? mRows.get(position).getMatchId() : position;
             }
 
             @Override
@@ -161,4 +127,35 @@ public final class ScoresWidgetRemoteViewsService extends RemoteViewsService {
             }
         };
     }
-}
\ No newline at end of file
+
+    private static final class CachedViews {
+        final TodaySnapshot.Row mRow;
+        final RemoteViews mViews;
+
+        CachedViews(TodaySnapshot.Row row, RemoteViews views) {
+            mRow = row;
+            mViews = views;
+        }
+    }
+
+    /**
+     * Text views are announced by their text, only the crests need a content description.
+     */
+    private RemoteViews buildViews(TodaySnapshot.Row row) {
+        final RemoteViews views = new RemoteViews(getPackageName(), R.layout.widget_item_score);
+
+        views.setTextViewText(R.id.widget_item_league, Utilities.getLeague(getResources(), row.getLeagueId()));
+        views.setTextViewText(R.id.widget_item_home_name, row.getHome());
+        views.setTextViewText(R.id.widget_item_away_name, row.getAway());
+        views.setTextViewText(R.id.widget_item_score,
+                Utilities.getScores(getResources(), row.getHomeGoals(), row.getAwayGoals()));
+        views.setTextViewText(R.id.widget_item_matchday, getString(R.string.match_day, row.getMatchDay()));
+
+        views.setImageViewResource(R.id.widget_item_home_crest, Utilities.getTeamCrestByTeamName(row.getHome()));
+        views.setImageViewResource(R.id.widget_item_away_crest, Utilities.getTeamCrestByTeamName(row.getAway()));
+
+        views.setContentDescription(R.id.widget_item_home_crest, row.getHome());
+        views.setContentDescription(R.id.widget_item_away_crest, row.getAway());
+        return views;
+    }
+}
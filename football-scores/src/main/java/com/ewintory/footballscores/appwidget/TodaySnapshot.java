@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.appwidget;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Today's matches as shown by the widget, small enough to be read from a file on every widget
+ * update instead of querying the provider. See {@link TodaySnapshotStore}.
+ */
+public final class TodaySnapshot {
+
+    private static final int FORMAT_VERSION = 1;
+
+    public static final class Row {
+        private final long mMatchId;
+        private final int mLeagueId;
+        private final String mHome;
+        private final String mAway;
+        private final int mHomeGoals;
+        private final int mAwayGoals;
+        private final int mMatchDay;
+
+        public Row(long matchId, int leagueId, String home, String away, int homeGoals, int awayGoals, int matchDay) {
+            mMatchId = matchId;
+            mLeagueId = leagueId;
+            mHome = home != null ? home : "";
+            mAway = away != null ? away : "";
+            mHomeGoals = homeGoals;
+            mAwayGoals = awayGoals;
+            mMatchDay = matchDay;
+        }
+
+        public long getMatchId() {
+            return mMatchId;
+        }
+
+        public int getLeagueId() {
+            return mLeagueId;
+        }
+
+        public String getHome() {
+            return mHome;
+        }
+
+        public String getAway() {
+            return mAway;
+        }
+
+        public int getHomeGoals() {
+            return mHomeGoals;
+        }
+
+        public int getAwayGoals() {
+            return mAwayGoals;
+        }
+
+        public int getMatchDay() {
+            return mMatchDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Row)) return false;
+
+            Row row = (Row) o;
+            return mMatchId == row.mMatchId
+                    && mLeagueId == row.mLeagueId
+                    && mHomeGoals == row.mHomeGoals
+                    && mAwayGoals == row.mAwayGoals
+                    && mMatchDay == row.mMatchDay
+                    && mHome.equals(row.mHome)
+                    && mAway.equals(row.mAway);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (mMatchId ^ (mMatchId >>> 32));
+            result = 31 * result + mLeagueId;
+            result = 31 * result + mHome.hashCode();
+            result = 31 * result + mAway.hashCode();
+            result = 31 * result + mHomeGoals;
+            result = 31 * result + mAwayGoals;
+            result = 31 * result + mMatchDay;
+            return result;
+        }
+    }
+
+    private final int mDay;
+    private final List<Row> mRows;
+
+    /**
+     * @param day local epoch day of the matches
+     */
+    public TodaySnapshot(int day, List<Row> rows) {
+        mDay = day;
+        mRows = Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    public int getDay() {
+        return mDay;
+    }
+
+    public List<Row> getRows() {
+        return mRows;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(mDay);
+        out.writeInt(mRows.size());
+        for (Row row : mRows) {
+            out.writeLong(row.mMatchId);
+            out.writeInt(row.mLeagueId);
+            out.writeUTF(row.mHome);
+            out.writeUTF(row.mAway);
+            out.writeInt(row.mHomeGoals);
+            out.writeInt(row.mAwayGoals);
+            out.writeInt(row.mMatchDay);
+        }
+    }
+
+    /**
+     * @throws IOException if the stream is truncated or was written in another format
+     */
+    public static TodaySnapshot readFrom(DataInputStream in) throws IOException {
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION)
+            throw new IOException("Unknown snapshot format " + version);
+
+        final int day = in.readInt();
+        final int size = in.readInt();
+        final List<Row> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Row(in.readLong(), in.readInt(), in.readUTF(), in.readUTF(),
+                    in.readInt(), in.readInt(), in.readInt()));
+        }
+        return new TodaySnapshot(day, rows);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TodaySnapshot)) return false;
+
+        TodaySnapshot snapshot = (TodaySnapshot) o;
+        return mDay == snapshot.mDay && mRows.equals(snapshot.mRows);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mDay + mRows.hashCode();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.appwidget;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.support.v4.util.AtomicFile;
+import android.util.Log;
+
+import com.ewintory.footballscores.provider.ScoresContract;
+import com.ewintory.footballscores.util.FixtureTimeConverter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Keeps the {@link TodaySnapshot} file in sync with the provider. {@link #update()} is called by
+ * the fetch pipeline after every sync, the widget only reads the file.
+ */
+public final class TodaySnapshotStore {
+    private static final String TAG = TodaySnapshotStore.class.getSimpleName();
+
+    private static final String FILE_NAME = "widget_today.snapshot";
+
+    // The fetch service and the widget's binder threads share the file
+    private static final Object sLock = new Object();
+
+    private interface TodayQuery {
+        String[] PROJECTION = {
+                ScoresContract.ScoreEntry.COLUMN_MATCH_ID,
+                ScoresContract.ScoreEntry.COLUMN_LEAGUE,
+                ScoresContract.ScoreEntry.COLUMN_HOME,
+                ScoresContract.ScoreEntry.COLUMN_AWAY,
+                ScoresContract.ScoreEntry.COLUMN_HOME_GOALS,
+                ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS,
+                ScoresContract.ScoreEntry.COLUMN_MATCH_DAY
+        };
+
+        String SORT_ORDER = ScoresContract.ScoreEntry.COLUMN_DATE + " ASC, "
+                + ScoresContract.ScoreEntry.COLUMN_MATCH_ID + " ASC";
+
+        int MATCH_ID = 0;
+        int LEAGUE = 1;
+        int HOME = 2;
+        int AWAY = 3;
+        int HOME_GOALS = 4;
+        int AWAY_GOALS = 5;
+        int MATCH_DAY = 6;
+    }
+
+    private final Context mContext;
+    private final AtomicFile mFile;
+
+    public TodaySnapshotStore(Context context) {
+        mContext = context.getApplicationContext();
+        mFile = new AtomicFile(new File(mContext.getFilesDir(), FILE_NAME));
+    }
+
+    public static int getToday() {
+        return new FixtureTimeConverter(TimeZone.getDefault()).toLocalEpochDay(System.currentTimeMillis());
+    }
+
+    /**
+     * @return stored snapshot, or {@code null} if there is none or it can't be read
+     */
+    public TodaySnapshot load() {
+        synchronized (sLock) {
+            return read();
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot of today from the provider and writes it if it differs from the stored one.
+     *
+     * @return whether the stored snapshot changed
+     */
+    public boolean update() {
+        final TodaySnapshot snapshot = query(getToday());
+        if (snapshot == null)
+            return false;
+
+        synchronized (sLock) {
+            return !snapshot.equals(read()) && write(snapshot);
+        }
+    }
+
+    private TodaySnapshot read() {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(mFile.openRead());
+            return TodaySnapshot.readFrom(in);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read the snapshot: " + e.getMessage());
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private boolean write(TodaySnapshot snapshot) {
+        FileOutputStream out = null;
+        try {
+            out = mFile.startWrite();
+            DataOutputStream data = new DataOutputStream(out);
+            snapshot.writeTo(data);
+            data.flush();
+            mFile.finishWrite(out);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write the snapshot: " + e.getMessage());
+            if (out != null)
+                mFile.failWrite(out);
+            return false;
+        }
+    }
+
+    private TodaySnapshot query(int day) {
+        final Cursor cursor = mContext.getContentResolver().query(
+                ScoresContract.ScoreEntry.buildDayUri(day),
+                TodayQuery.PROJECTION,
+                null,
+                null,
+                TodayQuery.SORT_ORDER);
+        if (cursor == null)
+            return null;
+
+        try {
+            final List<TodaySnapshot.Row> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                rows.add(new TodaySnapshot.Row(
+                        cursor.getLong(TodayQuery.MATCH_ID),
+                        cursor.getInt(TodayQuery.LEAGUE),
+                        cursor.getString(TodayQuery.HOME),
+                        cursor.getString(TodayQuery.AWAY),
+                        cursor.getInt(TodayQuery.HOME_GOALS),
+                        cursor.getInt(TodayQuery.AWAY_GOALS),
+                        cursor.getInt(TodayQuery.MATCH_DAY)));
+            }
+            return new TodaySnapshot(day, rows);
+        } finally {
+            cursor.close();
+        }
+    }
+}
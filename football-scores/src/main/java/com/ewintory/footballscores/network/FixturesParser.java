@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.network;
+
+import com.ewintory.footballscores.network.model.FixtureRow;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull parser for the fixtures response. Walks the json token by token and hands every fixture
+ * to a {@link Handler} as a {@link FixtureRow}, without building the
+ * {@link com.ewintory.footballscores.network.model.FixturesResponse} object graph.
+ */
+public final class FixturesParser {
+
+    public interface Handler {
+        /**
+         * @param row reused for the next fixture, copy what is needed before returning
+         */
+        void onFixture(FixtureRow row);
+    }
+
+    /**
+     * @return number of fixtures handed to the {@code handler}
+     */
+    public static int parse(Reader in, Handler handler) throws IOException {
+        final JsonReader reader = new JsonReader(in);
+        final FixtureRow row = new FixtureRow();
+        int count = 0;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("fixtures".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readFixture(reader, row.clear());
+                        handler.onFixture(row);
+                        count++;
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    private static void readFixture(JsonReader reader, FixtureRow row) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "_links":
+                    readLinks(reader, row);
+                    break;
+                case "date":
+                    row.setDate(reader.nextString());
+                    break;
+                case "status":
+                    row.setStatus(reader.nextString());
+                    break;
+                case "matchday":
+                    row.setMatchDay(reader.nextInt());
+                    break;
+                case "homeTeamName":
+                    row.setHomeTeamName(reader.nextString());
+                    break;
+                case "awayTeamName":
+                    row.setAwayTeamName(reader.nextString());
+                    break;
+                case "result":
+                    readResult(reader, row);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readLinks(JsonReader reader, FixtureRow row) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "self":
+                    row.setMatchId(readHrefId(reader));
+                    break;
+                case "soccerseason":
+                    row.setLeagueId((int) readHrefId(reader));
+                    break;
+                case "homeTeam":
+                    row.setHomeTeamId(readHrefId(reader));
+                    break;
+                case "awayTeam":
+                    row.setAwayTeamId(readHrefId(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readResult(JsonReader reader, FixtureRow row) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else if ("goalsHomeTeam".equals(name)) {
+                row.setHomeGoals(reader.nextInt());
+            } else if ("goalsAwayTeam".equals(name)) {
+                row.setAwayGoals(reader.nextInt());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads {@code {"href": ".../fixtures/147075"}} and returns the trailing id, 0 if there is none.
+     */
+    private static long readHrefId(JsonReader reader) throws IOException {
+        long id = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("href".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                id = parseTrailingId(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return id;
+    }
+
+    static long parseTrailingId(String href) {
+        int start = href.length();
+        while (start > 0 && Character.isDigit(href.charAt(start - 1))) {
+            start--;
+        }
+        long id = 0;
+        for (int i = start; i < href.length(); i++) {
+            id = id * 10 + (href.charAt(i) - '0');
+        }
+        return id;
+    }
+
+    private FixturesParser() {
+        throw new AssertionError("No instances.");
+    }
+}
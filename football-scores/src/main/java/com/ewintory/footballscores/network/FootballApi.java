@@ -16,15 +16,16 @@
 
 package com.ewintory.footballscores.network;
 
-import com.ewintory.footballscores.network.model.FixturesResponse;
 import com.ewintory.footballscores.network.model.Season;
 import com.ewintory.footballscores.network.model.TeamResponse;
 
 import java.util.List;
 
+import retrofit.client.Response;
 import retrofit.http.GET;
 import retrofit.http.Path;
 import retrofit.http.Query;
+import retrofit.http.Streaming;
 
 public interface FootballApi {
 
@@ -33,7 +34,20 @@ public interface FootballApi {
     @GET("/soccerseasons/{id}/teams") TeamResponse teams(
             @Path("id") String seasonId);
 
-    @GET("/fixtures") FixturesResponse fixtures(
+    /**
+     * Returns the raw response, so fixtures the server reported as not modified are never parsed.
+     *
+     * @see NotModifiedInterceptor#isNotModified(Response)
+     */
+    @GET("/fixtures") @Streaming Response fixtures(
             @Query("timeFrame") String timeFrame);
 
+    /**
+     * @param start first date, "yyyy-MM-dd"
+     * @param end   last date, inclusive
+     */
+    @GET("/fixtures") @Streaming Response fixtures(
+            @Query("timeFrameStart") String start,
+            @Query("timeFrameEnd") String end);
+
 }
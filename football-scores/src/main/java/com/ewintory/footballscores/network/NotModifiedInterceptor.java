@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.network;
+
+import android.util.Log;
+
+import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import retrofit.client.Header;
+
+/**
+ * Flags responses that the server confirmed with a 304 so callers can skip parsing them,
+ * and logs the hit rate of the HTTP {@link Cache}.
+ */
+public final class NotModifiedInterceptor implements Interceptor {
+    private static final String TAG = NotModifiedInterceptor.class.getSimpleName();
+
+    public static final String HEADER_NOT_MODIFIED = "X-Not-Modified";
+
+    private final Cache mCache;
+
+    public NotModifiedInterceptor(Cache cache) {
+        mCache = cache;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+
+        final Response networkResponse = response.networkResponse();
+        final boolean notModified = response.cacheResponse() != null && (networkResponse == null
+                || networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED);
+
+        Log.v(TAG, String.format("%s %s, cache hits %d/%d requests (%d network)",
+                notModified ? "HIT" : "MISS", response.request().urlString(),
+                mCache.getHitCount(), mCache.getRequestCount(), mCache.getNetworkCount()));
+
+        if (notModified) {
+            response = response.newBuilder().header(HEADER_NOT_MODIFIED, "true").build();
+        }
+        return response;
+    }
+
+    /**
+     * @return the response's ETag, or its Last-Modified date if it has no ETag, or {@code null}
+     */
+    public static String getValidator(retrofit.client.Response response) {
+        String lastModified = null;
+        for (Header header : response.getHeaders()) {
+            if ("ETag".equalsIgnoreCase(header.getName()))
+                return header.getValue();
+            if ("Last-Modified".equalsIgnoreCase(header.getName()))
+                lastModified = header.getValue();
+        }
+        return lastModified;
+    }
+
+    public static boolean isNotModified(retrofit.client.Response response) {
+        for (Header header : response.getHeaders()) {
+            if (HEADER_NOT_MODIFIED.equalsIgnoreCase(header.getName()))
+                return true;
+        }
+        return false;
+    }
+}
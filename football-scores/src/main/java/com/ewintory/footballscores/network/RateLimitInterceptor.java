@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.network;
+
+import android.util.Log;
+
+import com.ewintory.footballscores.util.TokenBucket;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Network interceptor that spends a permit of the shared {@link TokenBucket} on every request
+ * that reaches the server, requests over the budget wait for their permit.
+ */
+public final class RateLimitInterceptor implements Interceptor {
+    private static final String TAG = RateLimitInterceptor.class.getSimpleName();
+
+    private final TokenBucket mBudget;
+
+    public RateLimitInterceptor(TokenBucket budget) {
+        mBudget = budget;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            mBudget.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the request budget");
+        }
+
+        final long waitedMillis = (System.nanoTime() - start) / 1000000;
+        if (waitedMillis > 0)
+            Log.v(TAG, String.format("Waited %d ms for %s", waitedMillis, chain.request().urlString()));
+
+        return chain.proceed(chain.request());
+    }
+}
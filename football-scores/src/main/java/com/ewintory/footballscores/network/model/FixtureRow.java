@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.network.model;
+
+/**
+ * Flat, primitive view of a single {@link Fixture} as emitted by
+ * {@link com.ewintory.footballscores.network.FixturesParser}.
+ * <p/>
+ * The parser reuses one instance for every fixture of a response, so handlers must copy
+ * whatever they need before returning.
+ */
+public final class FixtureRow {
+    public static final int NO_GOALS = -1;
+
+    private long matchId;
+    private int leagueId;
+    private long homeTeamId;
+    private long awayTeamId;
+    private String date;
+    private String status;
+    private int matchDay;
+    private String homeTeamName;
+    private String awayTeamName;
+    private int homeGoals;
+    private int awayGoals;
+
+    public FixtureRow() {
+        clear();
+    }
+
+    public FixtureRow clear() {
+        matchId = 0;
+        leagueId = 0;
+        homeTeamId = 0;
+        awayTeamId = 0;
+        date = null;
+        status = null;
+        matchDay = 0;
+        homeTeamName = null;
+        awayTeamName = null;
+        homeGoals = NO_GOALS;
+        awayGoals = NO_GOALS;
+        return this;
+    }
+
+    public long getMatchId() {
+        return matchId;
+    }
+
+    public FixtureRow setMatchId(long matchId) {
+        this.matchId = matchId;
+        return this;
+    }
+
+    public int getLeagueId() {
+        return leagueId;
+    }
+
+    public FixtureRow setLeagueId(int leagueId) {
+        this.leagueId = leagueId;
+        return this;
+    }
+
+    public long getHomeTeamId() {
+        return homeTeamId;
+    }
+
+    public FixtureRow setHomeTeamId(long homeTeamId) {
+        this.homeTeamId = homeTeamId;
+        return this;
+    }
+
+    public long getAwayTeamId() {
+        return awayTeamId;
+    }
+
+    public FixtureRow setAwayTeamId(long awayTeamId) {
+        this.awayTeamId = awayTeamId;
+        return this;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public FixtureRow setDate(String date) {
+        this.date = date;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public FixtureRow setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public int getMatchDay() {
+        return matchDay;
+    }
+
+    public FixtureRow setMatchDay(int matchDay) {
+        this.matchDay = matchDay;
+        return this;
+    }
+
+    public String getHomeTeamName() {
+        return homeTeamName;
+    }
+
+    public FixtureRow setHomeTeamName(String homeTeamName) {
+        this.homeTeamName = homeTeamName;
+        return this;
+    }
+
+    public String getAwayTeamName() {
+        return awayTeamName;
+    }
+
+    public FixtureRow setAwayTeamName(String awayTeamName) {
+        this.awayTeamName = awayTeamName;
+        return this;
+    }
+
+    public int getHomeGoals() {
+        return homeGoals;
+    }
+
+    public FixtureRow setHomeGoals(int homeGoals) {
+        this.homeGoals = homeGoals;
+        return this;
+    }
+
+    public int getAwayGoals() {
+        return awayGoals;
+    }
+
+    public FixtureRow setAwayGoals(int awayGoals) {
+        this.awayGoals = awayGoals;
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import com.ewintory.footballscores.provider.ScoresContract.MatchStatus;
+
+import java.util.List;
+
+/**
+ * Compares the stored state of a match with the incoming one. A sync may skip several states,
+ * a match that went from timed straight to finished reports its kickoff, goals and final
+ * whistle, in that order.
+ */
+final class ScoreChangeDetector {
+
+    private ScoreChangeDetector() { }
+
+    /**
+     * Appends the events between the stored and the incoming state of a match to {@code out}.
+     * Goals are negative until the match has a result. A stored match without a status, as
+     * migrated from a schema without one, has an unknown state and reports nothing.
+     */
+    static void detect(long matchId, String oldStatus, int oldHomeGoals, int oldAwayGoals,
+                       String newStatus, int newHomeGoals, int newAwayGoals, List<ScoreEvent> out) {
+        if (oldStatus == null)
+            return;
+
+        if (MatchStatus.POSTPONED.equals(newStatus)) {
+            if (!MatchStatus.POSTPONED.equals(oldStatus))
+                out.add(new ScoreEvent(ScoreEvent.Type.POSTPONED, matchId, newHomeGoals, newAwayGoals, false));
+            return;
+        }
+
+        final boolean wasStarted = isStarted(oldStatus);
+        if (isStarted(newStatus) && !wasStarted)
+            out.add(new ScoreEvent(ScoreEvent.Type.KICKOFF, matchId, 0, 0, false));
+
+        // A goal taken back by the referee lowers the score without an event
+        if (Math.max(newHomeGoals, 0) > Math.max(oldHomeGoals, 0))
+            out.add(new ScoreEvent(ScoreEvent.Type.GOAL, matchId, newHomeGoals, Math.max(newAwayGoals, 0), true));
+        if (Math.max(newAwayGoals, 0) > Math.max(oldAwayGoals, 0))
+            out.add(new ScoreEvent(ScoreEvent.Type.GOAL, matchId, Math.max(newHomeGoals, 0), newAwayGoals, false));
+
+        if (MatchStatus.FINISHED.equals(newStatus) && !MatchStatus.FINISHED.equals(oldStatus))
+            out.add(new ScoreEvent(ScoreEvent.Type.FINAL_WHISTLE, matchId, newHomeGoals, newAwayGoals, false));
+    }
+
+    private static boolean isStarted(String status) {
+        return MatchStatus.IN_PLAY.equals(status) || MatchStatus.FINISHED.equals(status);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+/**
+ * Change of a stored match found by a scores sync, see {@link ScoreChangeDetector}. Events are
+ * posted to the {@link ScoreEventBus} once the sync is committed.
+ */
+public final class ScoreEvent {
+
+    public enum Type {
+        KICKOFF,
+        // One per team that scored since the previous sync
+        GOAL,
+        FINAL_WHISTLE,
+        POSTPONED
+    }
+
+    private final Type mType;
+    private final long mMatchId;
+    private final int mHomeGoals;
+    private final int mAwayGoals;
+    private final boolean mHomeGoal;
+
+    ScoreEvent(Type type, long matchId, int homeGoals, int awayGoals, boolean homeGoal) {
+        mType = type;
+        mMatchId = matchId;
+        mHomeGoals = homeGoals;
+        mAwayGoals = awayGoals;
+        mHomeGoal = homeGoal;
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    public long getMatchId() {
+        return mMatchId;
+    }
+
+    /**
+     * @return home goals after the event, negative before kickoff
+     */
+    public int getHomeGoals() {
+        return mHomeGoals;
+    }
+
+    public int getAwayGoals() {
+        return mAwayGoals;
+    }
+
+    /**
+     * @return whether the home team scored, meaningful for {@link Type#GOAL} only
+     */
+    public boolean isHomeGoal() {
+        return mHomeGoal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScoreEvent)) return false;
+
+        ScoreEvent event = (ScoreEvent) o;
+        return mType == event.mType && mMatchId == event.mMatchId && mHomeGoals == event.mHomeGoals
+                && mAwayGoals == event.mAwayGoals && mHomeGoal == event.mHomeGoal;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mType.hashCode();
+        result = 31 * result + (int) (mMatchId ^ (mMatchId >>> 32));
+        result = 31 * result + mHomeGoals;
+        result = 31 * result + mAwayGoals;
+        result = 31 * result + (mHomeGoal ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return mType + "{match=" + mMatchId + ", " + mHomeGoals + ":" + mAwayGoals + "}";
+    }
+}
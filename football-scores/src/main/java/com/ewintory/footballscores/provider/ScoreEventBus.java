@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process bus of {@link ScoreEvent}s, listeners are called on the main thread with the
+ * events of one committed sync. Nothing is kept for listeners registered later, whatever they
+ * show has to be loaded from the provider first.
+ */
+public final class ScoreEventBus {
+
+    public interface Listener {
+        void onScoreEvents(List<ScoreEvent> events);
+    }
+
+    private static final ScoreEventBus sInstance = new ScoreEventBus();
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> mListeners = new CopyOnWriteArrayList<>();
+
+    public static ScoreEventBus get() {
+        return sInstance;
+    }
+
+    private ScoreEventBus() { }
+
+    public void register(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public void unregister(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    void post(List<ScoreEvent> events) {
+        if (events.isEmpty() || mListeners.isEmpty())
+            return;
+
+        final List<ScoreEvent> posted = Collections.unmodifiableList(events);
+        mMainHandler.post(new Runnable() {
+            @Override public void run() {
+                for (Listener listener : mListeners) {
+                    listener.onScoreEvents(posted);
+                }
+            }
+        });
+    }
+}
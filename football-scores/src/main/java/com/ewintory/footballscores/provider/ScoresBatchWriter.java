@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.ewintory.footballscores.provider.ScoresContract.ScoreEntry;
+
+/**
+ * Writes synced matches through two statements compiled once per batch instead of building and
+ * compiling SQL for every row. Must be used inside the transaction of the sync, which commits
+ * or rolls back as a whole.
+ */
+final class ScoresBatchWriter {
+    private static final String TAG = ScoresBatchWriter.class.getSimpleName();
+
+    // Bind order of both statements, the match id is bound last
+    private static final String[] COLUMNS = {
+            ScoreEntry.COLUMN_DATE,
+            ScoreEntry.COLUMN_HOME,
+            ScoreEntry.COLUMN_AWAY,
+            ScoreEntry.COLUMN_HOME_ID,
+            ScoreEntry.COLUMN_AWAY_ID,
+            ScoreEntry.COLUMN_HOME_CREST,
+            ScoreEntry.COLUMN_AWAY_CREST,
+            ScoreEntry.COLUMN_LEAGUE,
+            ScoreEntry.COLUMN_LEAGUE_CAPTION,
+            ScoreEntry.COLUMN_HOME_GOALS,
+            ScoreEntry.COLUMN_AWAY_GOALS,
+            ScoreEntry.COLUMN_MATCH_DAY,
+            ScoreEntry.COLUMN_STATUS,
+            ScoreEntry.COLUMN_MATCH_ID
+    };
+
+    private static final String INSERT_SQL = buildInsert();
+    private static final String UPDATE_SQL = buildUpdate();
+
+    private final SQLiteDatabase mDb;
+    private SQLiteStatement mInsert;
+    private SQLiteStatement mUpdate;
+
+    ScoresBatchWriter(SQLiteDatabase db) {
+        mDb = db;
+    }
+
+    /**
+     * Inserts {@code values}, replacing a stored row with the same match id; missing columns are null.
+     *
+     * @return whether the row was written, a row breaking a constraint is skipped
+     */
+    boolean insert(ContentValues values) {
+        if (mInsert == null)
+            mInsert = mDb.compileStatement(INSERT_SQL);
+
+        bind(mInsert, values, null);
+        try {
+            return mInsert.executeInsert() != -1;
+        } catch (SQLiteConstraintException e) {
+            // Only the statement is rolled back, the rest of the sync is kept
+            Log.w(TAG, "Skipped match " + values.get(ScoreEntry.COLUMN_MATCH_ID) + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Overwrites the stored row of {@code values}' match id, columns missing from {@code values}
+     * keep their {@code stored} value.
+     *
+     * @return whether a row was updated, a row breaking a constraint is skipped
+     */
+    boolean update(ContentValues values, ContentValues stored) {
+        if (mUpdate == null)
+            mUpdate = mDb.compileStatement(UPDATE_SQL);
+
+        bind(mUpdate, values, stored);
+        try {
+            return mUpdate.executeUpdateDelete() > 0;
+        } catch (SQLiteConstraintException e) {
+            Log.w(TAG, "Skipped match " + values.get(ScoreEntry.COLUMN_MATCH_ID) + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    void close() {
+        if (mInsert != null)
+            mInsert.close();
+        if (mUpdate != null)
+            mUpdate.close();
+    }
+
+    private static void bind(SQLiteStatement statement, ContentValues values, ContentValues fallback) {
+        statement.clearBindings();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            final String column = COLUMNS[i];
+            final Object value = fallback == null || values.containsKey(column)
+                    ? values.get(column) : fallback.get(column);
+            DatabaseUtils.bindObjectToProgram(statement, i + 1, value);
+        }
+    }
+
+    private static String buildInsert() {
+        final StringBuilder sql = new StringBuilder("INSERT OR REPLACE INTO ")
+                .append(ScoreEntry.TABLE_NAME).append(" (");
+        final StringBuilder params = new StringBuilder();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                sql.append(',');
+                params.append(',');
+            }
+            sql.append(COLUMNS[i]);
+            params.append('?');
+        }
+        return sql.append(") VALUES (").append(params).append(')').toString();
+    }
+
+    private static String buildUpdate() {
+        final StringBuilder sql = new StringBuilder("UPDATE ")
+                .append(ScoreEntry.TABLE_NAME).append(" SET ");
+        // The match id itself is not updated, it is the bound key
+        for (int i = 0; i < COLUMNS.length - 1; i++) {
+            if (i > 0)
+                sql.append(',');
+            sql.append(COLUMNS[i]).append(" = ?");
+        }
+        return sql.append(" WHERE ").append(ScoreEntry.COLUMN_MATCH_ID).append(" = ?").toString();
+    }
+}
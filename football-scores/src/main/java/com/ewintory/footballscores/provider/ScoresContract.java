@@ -21,6 +21,36 @@ public final class ScoresContract {
 
     // Possible paths (appended to base content URI for possible URI's)
     public static final String PATH_SCORES = "scores";
+    public static final String PATH_DATE = "date";
+    public static final String PATH_LEAGUE = "league";
+    public static final String PATH_ID = "id";
+    public static final String PATH_SEASONS = "seasons";
+    public static final String PATH_TEAMS = "teams";
+
+    // Query parameter of the sync URI: rows with a kickoff before this epoch millis are dropped by the sync
+    public static final String PARAM_RETAIN_FROM = "retain_from";
+
+    // Provider method returning the query cache statistics, see CacheStats
+    public static final String METHOD_CACHE_STATS = "cache_stats";
+
+    // Int keys of the METHOD_CACHE_STATS result
+    public interface CacheStats {
+        String HITS = "hits";
+        String MISSES = "misses";
+        String EVICTIONS = "evictions";
+        // Cached rows plus one per cached query
+        String SIZE = "size";
+    }
+
+    // Match states reported by football-data.org
+    public interface MatchStatus {
+        String SCHEDULED = "SCHEDULED";
+        String TIMED = "TIMED";
+        String IN_PLAY = "IN_PLAY";
+        String FINISHED = "FINISHED";
+        String POSTPONED = "POSTPONED";
+        String CANCELED = "CANCELED";
+    }
 
     public interface Leagues {
         String BUNDESLIGA1 = "394";
@@ -47,30 +77,116 @@ public final class ScoresContract {
 
         public static final String TABLE_NAME = "scores";
 
+        public static final String INDEX_DATE = "scores_date_idx";
+        public static final String INDEX_LEAGUE = "scores_league_idx";
+
         public static final String COLUMN_LEAGUE = "league";
         public static final String COLUMN_LEAGUE_CAPTION = "league_caption";
+        // Kickoff, UTC epoch millis
         public static final String COLUMN_DATE = "date";
-        public static final String COLUMN_TIME = "time";
         public static final String COLUMN_HOME = "home";
         public static final String COLUMN_AWAY = "away";
+        public static final String COLUMN_HOME_ID = "home_id";
+        public static final String COLUMN_AWAY_ID = "away_id";
         public static final String COLUMN_HOME_CREST = "home_crest";
         public static final String COLUMN_AWAY_CREST = "away_crest";
         public static final String COLUMN_HOME_GOALS = "home_goals";
         public static final String COLUMN_AWAY_GOALS = "away_goals";
         public static final String COLUMN_MATCH_ID = "match_id";
         public static final String COLUMN_MATCH_DAY = "match_day";
+        // One of MatchStatus
+        public static final String COLUMN_STATUS = "status";
 
 
-        public static Uri buildScoreWithLeague() {
-            return BASE_CONTENT_URI.buildUpon().appendPath("league").build();
+        // Parent of the day uris, observers of it are notified of a change to any day
+        public static final Uri DATE_URI = BASE_CONTENT_URI.buildUpon().appendPath(PATH_DATE).build();
+
+        /**
+         * Matches that kick off on {@code localEpochDay}, also the notification uri of that day.
+         *
+         * @param localEpochDay see {@link com.ewintory.footballscores.util.FixtureTimeConverter#toLocalEpochDay(long)}
+         */
+        public static Uri buildDayUri(int localEpochDay) {
+            return DATE_URI.buildUpon().appendPath(String.valueOf(localEpochDay)).build();
+        }
+
+        /**
+         * Matches that kick off from {@code firstDay} to {@code lastDay}, both inclusive.
+         */
+        public static Uri buildDayRangeUri(int firstDay, int lastDay) {
+            return buildDayUri(firstDay).buildUpon().appendPath(String.valueOf(lastDay)).build();
+        }
+
+        /**
+         * Matches of {@code league} that kick off on {@code localEpochDay}.
+         */
+        public static Uri buildDayLeagueUri(int localEpochDay, int league) {
+            return buildDayUri(localEpochDay).buildUpon()
+                    .appendPath(PATH_LEAGUE).appendPath(String.valueOf(league)).build();
+        }
+
+        public static Uri buildLeagueUri(int league) {
+            return BASE_CONTENT_URI.buildUpon().appendPath(PATH_LEAGUE).appendPath(String.valueOf(league)).build();
         }
 
-        public static Uri buildScoreWithId() {
-            return BASE_CONTENT_URI.buildUpon().appendPath("id").build();
+        /**
+         * A single match, also its notification uri.
+         */
+        public static Uri buildMatchUri(long matchId) {
+            return BASE_CONTENT_URI.buildUpon().appendPath(PATH_ID).appendPath(String.valueOf(matchId)).build();
         }
 
-        public static Uri buildScoreWithDate() {
-            return BASE_CONTENT_URI.buildUpon().appendPath("date").build();
+        /**
+         * Uri for {@link android.content.ContentResolver#bulkInsert} that merges incoming rows with
+         * the stored ones by {@link #COLUMN_MATCH_ID} and drops rows dated before {@code retainFrom}.
+         *
+         * @param retainFrom earliest kickoff to keep, epoch millis; a negative value keeps every row
+         */
+        public static Uri buildSyncUri(long retainFrom) {
+            Uri.Builder builder = BASE_CONTENT_URI.buildUpon();
+            if (retainFrom >= 0)
+                builder.appendQueryParameter(PARAM_RETAIN_FROM, String.valueOf(retainFrom));
+            return builder.build();
         }
     }
+
+    /**
+     * Seasons of the supported leagues, refreshed by {@link com.ewintory.footballscores.service.FetchService}
+     * once they are older than the metadata time-to-live.
+     */
+    public static final class SeasonEntry implements BaseColumns {
+        public static final Uri CONTENT_URI = BASE_CONTENT_URI.buildUpon().appendPath(PATH_SEASONS).build();
+
+        public static final String CONTENT_TYPE =
+                ContentResolver.CURSOR_DIR_BASE_TYPE + "/" + CONTENT_AUTHORITY + "/" + PATH_SEASONS;
+
+        public static final String TABLE_NAME = "seasons";
+
+        // Same id as ScoreEntry.COLUMN_LEAGUE
+        public static final String COLUMN_SEASON_ID = "season_id";
+        public static final String COLUMN_CAPTION = "caption";
+        public static final String COLUMN_LEAGUE = "league";
+        public static final String COLUMN_YEAR = "year";
+        // Time of the last refresh, epoch millis
+        public static final String COLUMN_UPDATED = "updated";
+    }
+
+    /**
+     * Teams of the stored seasons, joined into the scores rows by
+     * {@link ScoreEntry#COLUMN_HOME_ID} and {@link ScoreEntry#COLUMN_AWAY_ID}.
+     */
+    public static final class TeamEntry implements BaseColumns {
+        public static final Uri CONTENT_URI = BASE_CONTENT_URI.buildUpon().appendPath(PATH_TEAMS).build();
+
+        public static final String CONTENT_TYPE =
+                ContentResolver.CURSOR_DIR_BASE_TYPE + "/" + CONTENT_AUTHORITY + "/" + PATH_TEAMS;
+
+        public static final String TABLE_NAME = "teams";
+
+        public static final String COLUMN_TEAM_ID = "team_id";
+        public static final String COLUMN_NAME = "name";
+        public static final String COLUMN_CREST_URL = "crest_url";
+        // Time of the last refresh, epoch millis
+        public static final String COLUMN_UPDATED = "updated";
+    }
 }
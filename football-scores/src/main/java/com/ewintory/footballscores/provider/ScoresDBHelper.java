@@ -5,6 +5,8 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
 import com.ewintory.footballscores.provider.ScoresContract.ScoreEntry;
+import com.ewintory.footballscores.provider.ScoresContract.SeasonEntry;
+import com.ewintory.footballscores.provider.ScoresContract.TeamEntry;
 
 
 /**
@@ -12,7 +14,12 @@ import com.ewintory.footballscores.provider.ScoresContract.ScoreEntry;
  */
 public class ScoresDBHelper extends SQLiteOpenHelper {
     public static final String DATABASE_NAME = "scores.db";
-    private static final int DATABASE_VERSION = 2;
+
+    // Last released version, versions 3 and 4 never shipped and are rebuilt like any other
+    private static final int VER_TEXT_DATE = 2;
+    private static final int VER_MATCH_STATUS = 5;
+    // Stored state recorded against the database, see FetchService, is only valid for this version
+    public static final int DATABASE_VERSION = VER_MATCH_STATUS;
 
     public ScoresDBHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
@@ -20,12 +27,36 @@ public class ScoresDBHelper extends SQLiteOpenHelper {
 
     @Override
     public void onCreate(SQLiteDatabase db) {
-        final String CreateScoresTable = "CREATE TABLE " + ScoreEntry.TABLE_NAME + " ("
+        createScoresTable(db, ScoreEntry.TABLE_NAME);
+        createScoresIndexes(db);
+        createMetadataTables(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == VER_TEXT_DATE) {
+            // Rebuilds the scores table with the current schema
+            migrateToEpochDate(db);
+            createMetadataTables(db);
+            oldVersion = DATABASE_VERSION;
+        }
+
+        if (oldVersion != DATABASE_VERSION) {
+            db.execSQL("DROP TABLE IF EXISTS " + ScoreEntry.TABLE_NAME);
+            db.execSQL("DROP TABLE IF EXISTS " + SeasonEntry.TABLE_NAME);
+            db.execSQL("DROP TABLE IF EXISTS " + TeamEntry.TABLE_NAME);
+            onCreate(db);
+        }
+    }
+
+    private static void createScoresTable(SQLiteDatabase db, String tableName) {
+        db.execSQL("CREATE TABLE " + tableName + " ("
                 + ScoreEntry._ID + " INTEGER PRIMARY KEY,"
-                + ScoreEntry.COLUMN_DATE + " TEXT NOT NULL,"
-                + ScoreEntry.COLUMN_TIME + " INTEGER NOT NULL,"
+                + ScoreEntry.COLUMN_DATE + " INTEGER NOT NULL,"
                 + ScoreEntry.COLUMN_HOME + " TEXT NOT NULL,"
                 + ScoreEntry.COLUMN_AWAY + " TEXT NOT NULL,"
+                + ScoreEntry.COLUMN_HOME_ID + " INTEGER,"
+                + ScoreEntry.COLUMN_AWAY_ID + " INTEGER,"
                 + ScoreEntry.COLUMN_HOME_CREST + " TEXT,"
                 + ScoreEntry.COLUMN_AWAY_CREST + " TEXT,"
                 + ScoreEntry.COLUMN_LEAGUE + " INTEGER NOT NULL,"
@@ -34,14 +65,78 @@ public class ScoresDBHelper extends SQLiteOpenHelper {
                 + ScoreEntry.COLUMN_AWAY_GOALS + " TEXT NOT NULL,"
                 + ScoreEntry.COLUMN_MATCH_ID + " INTEGER NOT NULL,"
                 + ScoreEntry.COLUMN_MATCH_DAY + " INTEGER NOT NULL,"
+                + ScoreEntry.COLUMN_STATUS + " TEXT,"
                 + " UNIQUE (" + ScoreEntry.COLUMN_MATCH_ID + ") ON CONFLICT REPLACE"
-                + " );";
-        db.execSQL(CreateScoresTable);
+                + " );");
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + ScoreEntry.TABLE_NAME);
-        onCreate(db);
+    /**
+     * The date index serves day and date range scans in kickoff order. It covers the widget's
+     * snapshot query, day pages also read the crests from the table. The league index serves per
+     * league lookups inside a date range.
+     */
+    private static void createScoresIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX " + ScoreEntry.INDEX_DATE + " ON " + ScoreEntry.TABLE_NAME + " ("
+                + ScoreEntry.COLUMN_DATE + ","
+                + ScoreEntry.COLUMN_LEAGUE + ","
+                + ScoreEntry.COLUMN_HOME + ","
+                + ScoreEntry.COLUMN_AWAY + ","
+                + ScoreEntry.COLUMN_HOME_GOALS + ","
+                + ScoreEntry.COLUMN_AWAY_GOALS + ","
+                + ScoreEntry.COLUMN_MATCH_DAY + ","
+                + ScoreEntry.COLUMN_MATCH_ID + ");");
+        db.execSQL("CREATE INDEX " + ScoreEntry.INDEX_LEAGUE + " ON " + ScoreEntry.TABLE_NAME + " ("
+                + ScoreEntry.COLUMN_LEAGUE + ","
+                + ScoreEntry.COLUMN_DATE + ");");
+    }
+
+    private static void createMetadataTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + SeasonEntry.TABLE_NAME + " ("
+                + SeasonEntry._ID + " INTEGER PRIMARY KEY,"
+                + SeasonEntry.COLUMN_SEASON_ID + " INTEGER NOT NULL,"
+                + SeasonEntry.COLUMN_CAPTION + " TEXT,"
+                + SeasonEntry.COLUMN_LEAGUE + " TEXT,"
+                + SeasonEntry.COLUMN_YEAR + " TEXT,"
+                + SeasonEntry.COLUMN_UPDATED + " INTEGER NOT NULL,"
+                + " UNIQUE (" + SeasonEntry.COLUMN_SEASON_ID + ") ON CONFLICT REPLACE"
+                + " );");
+        db.execSQL("CREATE TABLE " + TeamEntry.TABLE_NAME + " ("
+                + TeamEntry._ID + " INTEGER PRIMARY KEY,"
+                + TeamEntry.COLUMN_TEAM_ID + " INTEGER NOT NULL,"
+                + TeamEntry.COLUMN_NAME + " TEXT,"
+                + TeamEntry.COLUMN_CREST_URL + " TEXT,"
+                + TeamEntry.COLUMN_UPDATED + " INTEGER NOT NULL,"
+                + " UNIQUE (" + TeamEntry.COLUMN_TEAM_ID + ") ON CONFLICT REPLACE"
+                + " );");
+    }
+
+    /**
+     * Version 2 kept the local "yyyy-MM-dd" date and "HH:mm" time as text, the current version keeps
+     * the kickoff as UTC epoch millis. SQLite's 'utc' modifier converts from the device time zone,
+     * which is the zone the text values were written in.
+     */
+    private static void migrateToEpochDate(SQLiteDatabase db) {
+        final String tempTable = ScoreEntry.TABLE_NAME + "_v" + DATABASE_VERSION;
+        final String columns = ScoreEntry._ID + ","
+                + ScoreEntry.COLUMN_HOME + ","
+                + ScoreEntry.COLUMN_AWAY + ","
+                + ScoreEntry.COLUMN_HOME_CREST + ","
+                + ScoreEntry.COLUMN_AWAY_CREST + ","
+                + ScoreEntry.COLUMN_LEAGUE + ","
+                + ScoreEntry.COLUMN_LEAGUE_CAPTION + ","
+                + ScoreEntry.COLUMN_HOME_GOALS + ","
+                + ScoreEntry.COLUMN_AWAY_GOALS + ","
+                + ScoreEntry.COLUMN_MATCH_ID + ","
+                + ScoreEntry.COLUMN_MATCH_DAY;
+
+        // onUpgrade already runs inside a transaction
+        createScoresTable(db, tempTable);
+        db.execSQL("INSERT INTO " + tempTable + " (" + ScoreEntry.COLUMN_DATE + "," + columns + ")"
+                + " SELECT CAST(strftime('%s', date || ' ' || time, 'utc') AS INTEGER) * 1000," + columns
+                + " FROM " + ScoreEntry.TABLE_NAME
+                + " WHERE strftime('%s', date || ' ' || time, 'utc') IS NOT NULL;");
+        db.execSQL("DROP TABLE " + ScoreEntry.TABLE_NAME);
+        db.execSQL("ALTER TABLE " + tempTable + " RENAME TO " + ScoreEntry.TABLE_NAME);
+        createScoresIndexes(db);
     }
 }
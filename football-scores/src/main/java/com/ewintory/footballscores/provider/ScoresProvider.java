@@ -1,59 +1,91 @@
 package com.ewintory.footballscores.provider;
 
 import android.content.ContentProvider;
+import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.UriMatcher;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
+import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.util.Log;
 
+import com.ewintory.footballscores.util.FixtureTimeConverter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
 public class ScoresProvider extends ContentProvider {
     private static final String TAG = ScoresProvider.class.getSimpleName();
 
     private static ScoresDBHelper mOpenHelper;
     private static final int MATCHES = 100;
-    private static final int MATCHES_WITH_LEAGUE = 101;
-    private static final int MATCHES_WITH_ID = 102;
-    private static final int MATCHES_WITH_DATE = 103;
+    private static final int MATCHES_IN_LEAGUE = 101;
+    private static final int MATCH_BY_ID = 102;
+    private static final int MATCHES_ON_DAY = 103;
+    private static final int MATCHES_IN_DAYS = 104;
+    private static final int MATCHES_ON_DAY_IN_LEAGUE = 105;
+    private static final int SEASONS = 200;
+    private static final int TEAMS = 300;
 
-    private UriMatcher mUriMatcher = buildUriMatcher();
-    private static final String SCORES_BY_LEAGUE = ScoresContract.ScoreEntry.COLUMN_LEAGUE + " = ?";
+    private static final UriMatcher sUriMatcher = buildUriMatcher();
+    private final ScoresQueryCache mQueryCache = new ScoresQueryCache();
 
+    private static final String SCORES_BY_LEAGUE = ScoresContract.ScoreEntry.COLUMN_LEAGUE + " = ?";
     private static final String SCORES_BY_DATE =
-            ScoresContract.ScoreEntry.COLUMN_DATE + " LIKE ?";
+            ScoresContract.ScoreEntry.COLUMN_DATE + " >= ? AND " + ScoresContract.ScoreEntry.COLUMN_DATE + " < ?";
+    private static final String SCORES_BY_DATE_AND_LEAGUE = SCORES_BY_DATE + " AND " + SCORES_BY_LEAGUE;
     private static final String SCORES_BY_ID =
             ScoresContract.ScoreEntry.COLUMN_MATCH_ID + " = ?";
+    private static final String SCORES_BEFORE_DATE =
+            ScoresContract.ScoreEntry.COLUMN_DATE + " < ?";
+
+    private static final String HOME_CREST_QUERY = "(SELECT " + ScoresContract.TeamEntry.COLUMN_CREST_URL
+            + " FROM " + ScoresContract.TeamEntry.TABLE_NAME
+            + " WHERE " + ScoresContract.TeamEntry.COLUMN_TEAM_ID + " = " + ScoresContract.ScoreEntry.COLUMN_HOME_ID + ")";
+    private static final String AWAY_CREST_QUERY = "(SELECT " + ScoresContract.TeamEntry.COLUMN_CREST_URL
+            + " FROM " + ScoresContract.TeamEntry.TABLE_NAME
+            + " WHERE " + ScoresContract.TeamEntry.COLUMN_TEAM_ID + " = " + ScoresContract.ScoreEntry.COLUMN_AWAY_ID + ")";
+    private static final String LEAGUE_CAPTION_QUERY = "(SELECT " + ScoresContract.SeasonEntry.COLUMN_CAPTION
+            + " FROM " + ScoresContract.SeasonEntry.TABLE_NAME
+            + " WHERE " + ScoresContract.SeasonEntry.COLUMN_SEASON_ID + " = " + ScoresContract.ScoreEntry.COLUMN_LEAGUE + ")";
+
+    // Touches only the rows whose crests or caption differ from the stored metadata
+    private static final String ENRICH_SCORES = "UPDATE " + ScoresContract.ScoreEntry.TABLE_NAME + " SET "
+            + ScoresContract.ScoreEntry.COLUMN_HOME_CREST + " = " + HOME_CREST_QUERY + ","
+            + ScoresContract.ScoreEntry.COLUMN_AWAY_CREST + " = " + AWAY_CREST_QUERY + ","
+            + ScoresContract.ScoreEntry.COLUMN_LEAGUE_CAPTION + " = " + LEAGUE_CAPTION_QUERY
+            + " WHERE " + ScoresContract.ScoreEntry.COLUMN_HOME_CREST + " IS NOT " + HOME_CREST_QUERY
+            + " OR " + ScoresContract.ScoreEntry.COLUMN_AWAY_CREST + " IS NOT " + AWAY_CREST_QUERY
+            + " OR " + ScoresContract.ScoreEntry.COLUMN_LEAGUE_CAPTION + " IS NOT " + LEAGUE_CAPTION_QUERY;
 
 
     static UriMatcher buildUriMatcher() {
         final UriMatcher matcher = new UriMatcher(UriMatcher.NO_MATCH);
         final String authority = ScoresContract.CONTENT_AUTHORITY;
+        final String date = ScoresContract.PATH_DATE;
+        final String league = ScoresContract.PATH_LEAGUE;
 
         matcher.addURI(authority, null, MATCHES);
-        matcher.addURI(authority, "id", MATCHES_WITH_ID);
-        matcher.addURI(authority, "league", MATCHES_WITH_LEAGUE);
-        matcher.addURI(authority, "date", MATCHES_WITH_DATE);
+        matcher.addURI(authority, ScoresContract.PATH_ID + "/#", MATCH_BY_ID);
+        matcher.addURI(authority, league + "/#", MATCHES_IN_LEAGUE);
+        matcher.addURI(authority, date + "/#", MATCHES_ON_DAY);
+        matcher.addURI(authority, date + "/#/#", MATCHES_IN_DAYS);
+        matcher.addURI(authority, date + "/#/" + league + "/#", MATCHES_ON_DAY_IN_LEAGUE);
+        matcher.addURI(authority, ScoresContract.PATH_SEASONS, SEASONS);
+        matcher.addURI(authority, ScoresContract.PATH_TEAMS, TEAMS);
 
         return matcher;
     }
 
-    private int matchUri(Uri uri) {
-        String link = uri.toString();
-
-        if (link.contentEquals(ScoresContract.BASE_CONTENT_URI.toString())) {
-            return MATCHES;
-        } else if (link.contentEquals(ScoresContract.ScoreEntry.buildScoreWithDate().toString())) {
-            return MATCHES_WITH_DATE;
-        } else if (link.contentEquals(ScoresContract.ScoreEntry.buildScoreWithId().toString())) {
-            return MATCHES_WITH_ID;
-        } else if (link.contentEquals(ScoresContract.ScoreEntry.buildScoreWithLeague().toString())) {
-            return MATCHES_WITH_LEAGUE;
-        }
-        return -1;
-    }
-
     @Override
     public boolean onCreate() {
         mOpenHelper = new ScoresDBHelper(getContext());
@@ -67,90 +99,333 @@ public class ScoresProvider extends ContentProvider {
 
     @Override
     public String getType(Uri uri) {
-        final int match = mUriMatcher.match(uri);
+        final int match = sUriMatcher.match(uri);
         switch (match) {
             case MATCHES:
+            case MATCHES_IN_LEAGUE:
+            case MATCHES_ON_DAY:
+            case MATCHES_IN_DAYS:
+            case MATCHES_ON_DAY_IN_LEAGUE:
                 return ScoresContract.ScoreEntry.CONTENT_TYPE;
-            case MATCHES_WITH_LEAGUE:
-                return ScoresContract.ScoreEntry.CONTENT_TYPE;
-            case MATCHES_WITH_ID:
+            case MATCH_BY_ID:
                 return ScoresContract.ScoreEntry.CONTENT_ITEM_TYPE;
-            case MATCHES_WITH_DATE:
-                return ScoresContract.ScoreEntry.CONTENT_TYPE;
+            case SEASONS:
+                return ScoresContract.SeasonEntry.CONTENT_TYPE;
+            case TEAMS:
+                return ScoresContract.TeamEntry.CONTENT_TYPE;
             default:
                 throw new UnsupportedOperationException("Unknown uri :" + uri);
         }
     }
 
+    /**
+     * Scores are selected by the path, see {@link ScoresContract.ScoreEntry}, a caller's
+     * {@code selection} narrows them further. Days are local epoch days.
+     */
     @Override
     public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
-        Cursor retCursor;
-        int match = matchUri(uri);
+        final Cursor retCursor;
+        final Uri notificationUri;
+        final int match = sUriMatcher.match(uri);
         switch (match) {
             case MATCHES:
-                retCursor = mOpenHelper.getReadableDatabase().query(
-                        ScoresContract.ScoreEntry.TABLE_NAME,
-                        projection, null, null, null, null, sortOrder);
+                retCursor = queryScores(projection, selection, selectionArgs, sortOrder, null);
+                notificationUri = ScoresContract.BASE_CONTENT_URI;
                 break;
-            case MATCHES_WITH_DATE:
-                retCursor = mOpenHelper.getReadableDatabase().query(
-                        ScoresContract.ScoreEntry.TABLE_NAME,
-                        projection, SCORES_BY_DATE, selectionArgs, null, null, sortOrder);
+            case MATCHES_ON_DAY: {
+                final int day = parseInt(uri, 1);
+                retCursor = queryDay(day, ScoresQueryCache.ALL_LEAGUES, projection, selection, selectionArgs, sortOrder);
+                notificationUri = ScoresContract.ScoreEntry.buildDayUri(day);
+                break;
+            }
+            case MATCHES_ON_DAY_IN_LEAGUE: {
+                final int day = parseInt(uri, 1);
+                retCursor = queryDay(day, parseInt(uri, 3), projection, selection, selectionArgs, sortOrder);
+                notificationUri = ScoresContract.ScoreEntry.buildDayUri(day);
+                break;
+            }
+            case MATCHES_IN_DAYS: {
+                final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+                retCursor = queryScores(projection, selection, selectionArgs, sortOrder, SCORES_BY_DATE,
+                        String.valueOf(converter.getDayStartMillis(parseInt(uri, 1))),
+                        String.valueOf(converter.getDayStartMillis(parseInt(uri, 2) + 1)));
+                // Changes are notified per day, all of them reach the date uri
+                notificationUri = ScoresContract.ScoreEntry.DATE_URI;
+                break;
+            }
+            case MATCHES_IN_LEAGUE:
+                retCursor = queryScores(projection, selection, selectionArgs, sortOrder, SCORES_BY_LEAGUE,
+                        uri.getPathSegments().get(1));
+                notificationUri = ScoresContract.ScoreEntry.DATE_URI;
                 break;
-            case MATCHES_WITH_ID:
+            case MATCH_BY_ID:
+                retCursor = queryScores(projection, selection, selectionArgs, sortOrder, SCORES_BY_ID,
+                        uri.getPathSegments().get(1));
+                notificationUri = uri;
+                break;
+            case SEASONS:
                 retCursor = mOpenHelper.getReadableDatabase().query(
-                        ScoresContract.ScoreEntry.TABLE_NAME,
-                        projection, SCORES_BY_ID, selectionArgs, null, null, sortOrder);
+                        ScoresContract.SeasonEntry.TABLE_NAME,
+                        projection, selection, selectionArgs, null, null, sortOrder);
+                notificationUri = uri;
                 break;
-            case MATCHES_WITH_LEAGUE:
+            case TEAMS:
                 retCursor = mOpenHelper.getReadableDatabase().query(
-                        ScoresContract.ScoreEntry.TABLE_NAME,
-                        projection, SCORES_BY_LEAGUE, selectionArgs, null, null, sortOrder);
+                        ScoresContract.TeamEntry.TABLE_NAME,
+                        projection, selection, selectionArgs, null, null, sortOrder);
+                notificationUri = uri;
                 break;
             default:
                 throw new UnsupportedOperationException("Unknown Uri" + uri);
         }
-        retCursor.setNotificationUri(getContext().getContentResolver(), uri);
+        retCursor.setNotificationUri(getContext().getContentResolver(), notificationUri);
         return retCursor;
     }
 
+    /**
+     * Day queries without a caller's selection go through the query cache.
+     */
+    private Cursor queryDay(int day, int league, String[] projection, String selection,
+                            String[] selectionArgs, String sortOrder) {
+        final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+        final String start = String.valueOf(converter.getDayStartMillis(day));
+        final String end = String.valueOf(converter.getDayStartMillis(day + 1));
+        final boolean allLeagues = league == ScoresQueryCache.ALL_LEAGUES;
+
+        if (selection != null) {
+            return allLeagues
+                    ? queryScores(projection, selection, selectionArgs, sortOrder, SCORES_BY_DATE, start, end)
+                    : queryScores(projection, selection, selectionArgs, sortOrder, SCORES_BY_DATE_AND_LEAGUE,
+                    start, end, String.valueOf(league));
+        }
+
+        final String key = ScoresQueryCache.key(day, Long.parseLong(start), league, projection, sortOrder);
+        final Cursor cached = mQueryCache.get(key);
+        if (cached != null)
+            return cached;
+
+        Log.v(TAG, "Query cache miss for day " + day + ", " + mQueryCache.getHitRate());
+        final long generation = mQueryCache.getGeneration();
+        return mQueryCache.put(key, generation, allLeagues
+                ? queryScores(projection, null, null, sortOrder, SCORES_BY_DATE, start, end)
+                : queryScores(projection, null, null, sortOrder, SCORES_BY_DATE_AND_LEAGUE,
+                start, end, String.valueOf(league)));
+    }
+
+    private Cursor queryScores(String[] projection, String selection, String[] selectionArgs,
+                               String sortOrder, String pathSelection, String... pathArgs) {
+        return mOpenHelper.getReadableDatabase().query(ScoresContract.ScoreEntry.TABLE_NAME, projection,
+                DatabaseUtils.concatenateWhere(pathSelection, selection),
+                DatabaseUtils.appendSelectionArgs(pathArgs, selectionArgs),
+                null, null, sortOrder);
+    }
+
+    private static int parseInt(Uri uri, int segment) {
+        return Integer.parseInt(uri.getPathSegments().get(segment));
+    }
+
+    @Override
+    public Bundle call(@NonNull String method, String arg, Bundle extras) {
+        if (ScoresContract.METHOD_CACHE_STATS.equals(method)) {
+            return mQueryCache.getStats();
+        }
+        return super.call(method, arg, extras);
+    }
+
     @Override
     public Uri insert(Uri uri, ContentValues values) {
         return null;
     }
 
+    /**
+     * Merges {@code values} into the scores table instead of reloading it: rows are matched by
+     * {@link ScoresContract.ScoreEntry#COLUMN_MATCH_ID}, only new or changed ones are written and
+     * rows dated before {@link ScoresContract#PARAM_RETAIN_FROM} are removed. Only the days and
+     * updated matches touched by the sync are notified. Rows go through one INSERT and one UPDATE
+     * statement compiled by a {@link ScoresBatchWriter}, and the sync commits or rolls back as a
+     * whole. Changes of updated matches are posted to the {@link ScoreEventBus} after the commit.
+     * <p/>
+     * Seasons and teams replace the stored rows with the same id, stored scores then pick up the
+     * new crests and captions.
+     *
+     * @return number of rows inserted, updated or deleted; zero means the table is unchanged
+     */
     @Override
     public int bulkInsert(Uri uri, @NonNull ContentValues[] values) {
-        SQLiteDatabase db = mOpenHelper.getWritableDatabase();
-        db.delete(ScoresContract.ScoreEntry.TABLE_NAME, null, null);
-
-        switch (matchUri(uri)) {
+        switch (sUriMatcher.match(uri)) {
             case MATCHES:
+                final SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+                final String retainFrom = uri.getQueryParameter(ScoresContract.PARAM_RETAIN_FROM);
+                int inserted = 0, updated = 0, unchanged = 0, deleted = 0;
+
+                final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+                final Set<Integer> touchedDays = new TreeSet<>();
+                final List<Long> updatedMatches = new ArrayList<>();
+                final List<ScoreEvent> events = new ArrayList<>();
+
+                final ScoresBatchWriter writer = new ScoresBatchWriter(db);
                 db.beginTransaction();
-                int returnCount = 0;
                 try {
+                    final Map<String, ContentValues> stored = queryStoredMatches(db);
+
                     for (ContentValues value : values) {
-                        long _id = db.insertWithOnConflict(
-                                ScoresContract.ScoreEntry.TABLE_NAME,
-                                null,
-                                value,
-                                SQLiteDatabase.CONFLICT_REPLACE);
-                        if (_id != -1) {
-                            returnCount++;
+                        final String matchId = value.getAsString(ScoresContract.ScoreEntry.COLUMN_MATCH_ID);
+                        final ContentValues current = stored.get(matchId);
+
+                        if (current == null) {
+                            if (writer.insert(value)) {
+                                inserted++;
+                                touchedDays.add(getDay(converter, value));
+                            }
+                        } else if (isChanged(current, value)) {
+                            if (writer.update(value, current)) {
+                                updated++;
+                                // A rescheduled match leaves its old day
+                                touchedDays.add(getDay(converter, current));
+                                touchedDays.add(getDay(converter, value));
+                                updatedMatches.add(Long.valueOf(matchId));
+                                detectEvents(current, value, events);
+                            }
+                        } else {
+                            unchanged++;
+                        }
+                    }
+
+                    if (retainFrom != null) {
+                        deleted = db.delete(ScoresContract.ScoreEntry.TABLE_NAME,
+                                SCORES_BEFORE_DATE, new String[]{retainFrom});
+                        if (deleted > 0) {
+                            final long retainFromMillis = Long.parseLong(retainFrom);
+                            for (ContentValues row : stored.values()) {
+                                if (row.getAsLong(ScoresContract.ScoreEntry.COLUMN_DATE) < retainFromMillis)
+                                    touchedDays.add(getDay(converter, row));
+                            }
                         }
                     }
                     db.setTransactionSuccessful();
                 } finally {
+                    writer.close();
                     db.endTransaction();
                 }
-                getContext().getContentResolver().notifyChange(uri, null);
-                return returnCount;
+
+                Log.v(TAG, String.format("Sync finished: %d inserted, %d updated, %d unchanged, %d deleted",
+                        inserted, updated, unchanged, deleted));
+
+                final ContentResolver resolver = getContext().getContentResolver();
+                for (int day : touchedDays) {
+                    mQueryCache.invalidateDay(day);
+                    resolver.notifyChange(ScoresContract.ScoreEntry.buildDayUri(day), null);
+                }
+                for (long matchId : updatedMatches) {
+                    resolver.notifyChange(ScoresContract.ScoreEntry.buildMatchUri(matchId), null);
+                }
+                if (!events.isEmpty()) {
+                    Log.v(TAG, "Score events: " + events);
+                    ScoreEventBus.get().post(events);
+                }
+                return inserted + updated + deleted;
+            case SEASONS:
+                return replaceMetadata(ScoresContract.SeasonEntry.TABLE_NAME, values);
+            case TEAMS:
+                return replaceMetadata(ScoresContract.TeamEntry.TABLE_NAME, values);
             default:
                 Log.w(TAG, uri.toString());
                 return super.bulkInsert(uri, values);
         }
     }
 
+    private int replaceMetadata(String tableName, ContentValues[] values) {
+        final SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+        int replaced = 0, enriched;
+
+        db.beginTransaction();
+        try {
+            for (ContentValues value : values) {
+                if (db.insertWithOnConflict(tableName, null, value, SQLiteDatabase.CONFLICT_REPLACE) != -1) {
+                    replaced++;
+                }
+            }
+            final SQLiteStatement enrich = db.compileStatement(ENRICH_SCORES);
+            try {
+                enriched = enrich.executeUpdateDelete();
+            } finally {
+                enrich.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        Log.v(TAG, String.format("%s replaced: %d rows, %d matches enriched", tableName, replaced, enriched));
+
+        if (enriched > 0) {
+            mQueryCache.invalidateAll();
+            // Enrichment may touch any day
+            getContext().getContentResolver().notifyChange(ScoresContract.ScoreEntry.DATE_URI, null);
+        }
+        return replaced;
+    }
+
+    /**
+     * Columns missing from {@code incoming} keep their stored value, as they do in the update.
+     */
+    private static void detectEvents(ContentValues stored, ContentValues incoming, List<ScoreEvent> out) {
+        final ContentValues merged = new ContentValues(stored);
+        merged.putAll(incoming);
+        ScoreChangeDetector.detect(
+                merged.getAsLong(ScoresContract.ScoreEntry.COLUMN_MATCH_ID),
+                stored.getAsString(ScoresContract.ScoreEntry.COLUMN_STATUS),
+                getGoals(stored, ScoresContract.ScoreEntry.COLUMN_HOME_GOALS),
+                getGoals(stored, ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS),
+                merged.getAsString(ScoresContract.ScoreEntry.COLUMN_STATUS),
+                getGoals(merged, ScoresContract.ScoreEntry.COLUMN_HOME_GOALS),
+                getGoals(merged, ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS),
+                out);
+    }
+
+    private static int getGoals(ContentValues values, String column) {
+        final Integer goals = values.getAsInteger(column);
+        return goals != null ? goals : -1;
+    }
+
+    private static int getDay(FixtureTimeConverter converter, ContentValues values) {
+        return converter.toLocalEpochDay(values.getAsLong(ScoresContract.ScoreEntry.COLUMN_DATE));
+    }
+
+    /**
+     * Loads the stored rows keyed by match id, must be called inside the sync transaction.
+     */
+    private static Map<String, ContentValues> queryStoredMatches(SQLiteDatabase db) {
+        Cursor cursor = db.query(ScoresContract.ScoreEntry.TABLE_NAME, null, null, null, null, null, null);
+        try {
+            final Map<String, ContentValues> stored = new HashMap<>(cursor.getCount());
+            final int matchIdIndex = cursor.getColumnIndexOrThrow(ScoresContract.ScoreEntry.COLUMN_MATCH_ID);
+            while (cursor.moveToNext()) {
+                ContentValues row = new ContentValues();
+                DatabaseUtils.cursorRowToContentValues(cursor, row);
+                stored.put(cursor.getString(matchIdIndex), row);
+            }
+            return stored;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Compares only the columns present in {@code incoming}; values are compared in their string
+     * form because SQLite hands back the column affinity type, not the type that was put.
+     */
+    private static boolean isChanged(ContentValues stored, ContentValues incoming) {
+        for (Map.Entry<String, Object> entry : incoming.valueSet()) {
+            final Object newValue = entry.getValue();
+            final String oldValue = stored.getAsString(entry.getKey());
+            if (newValue == null ? oldValue != null : !newValue.toString().equals(oldValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public int delete(Uri uri, String selection, String[] selectionArgs) {
         return 0;
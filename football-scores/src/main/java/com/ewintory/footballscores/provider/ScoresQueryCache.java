@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Bundle;
+import android.support.v4.util.LruCache;
+import android.text.TextUtils;
+
+
+/**
+ * Bounded LRU cache of per-day scores queries, keyed by day, league, projection and sort order.
+ * Results are kept as plain values and served as {@link MatrixCursor}s.
+ * <p/>
+ * Writes invalidate the days they touched. A result read while an invalidation was running is
+ * not stored, so the cache never holds rows older than the last write.
+ */
+final class ScoresQueryCache {
+
+    static final int ALL_LEAGUES = -1;
+
+    // Counted in rows, a day is a few dozen matches
+    private static final int MAX_CACHED_ROWS = 2000;
+
+    private static final class Result {
+        final String[] mColumns;
+        final Object[][] mRows;
+
+        Result(String[] columns, Object[][] rows) {
+            mColumns = columns;
+            mRows = rows;
+        }
+    }
+
+    private final LruCache<String, Result> mCache = new LruCache<String, Result>(MAX_CACHED_ROWS) {
+        @Override protected int sizeOf(String key, Result value) {
+            return value.mRows.length + 1;
+        }
+    };
+
+    // Guarded by mCache
+    private long mGeneration;
+
+    /**
+     * @param dayStart start of the day, epoch millis; tells apart days of different time zones
+     */
+    static String key(int day, long dayStart, int league, String[] projection, String sortOrder) {
+        return day + "/" + dayStart + "/" + league + "/"
+                + (projection != null ? TextUtils.join(",", projection) : "*") + "/" + sortOrder;
+    }
+
+    /**
+     * @return a new cursor over the cached result, or {@code null} on a miss
+     */
+    Cursor get(String key) {
+        final Result result = mCache.get(key);
+        return result != null ? newCursor(result) : null;
+    }
+
+    /**
+     * Must be read before the query runs and passed to {@link #put}.
+     */
+    long getGeneration() {
+        synchronized (mCache) {
+            return mGeneration;
+        }
+    }
+
+    /**
+     * Copies {@code cursor} into the cache and closes it.
+     *
+     * @param generation value of {@link #getGeneration()} read before the query ran
+     * @return a new cursor over the same rows
+     */
+    Cursor put(String key, long generation, Cursor cursor) {
+        final String[] columns = cursor.getColumnNames();
+        final Object[][] rows = new Object[cursor.getCount()][];
+        try {
+            while (cursor.moveToNext()) {
+                final Object[] row = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    row[i] = getValue(cursor, i);
+                }
+                rows[cursor.getPosition()] = row;
+            }
+        } finally {
+            cursor.close();
+        }
+
+        final Result result = new Result(columns, rows);
+        synchronized (mCache) {
+            if (generation == mGeneration)
+                mCache.put(key, result);
+        }
+        return newCursor(result);
+    }
+
+    void invalidateDay(int day) {
+        final String prefix = day + "/";
+        synchronized (mCache) {
+            mGeneration++;
+            for (String key : mCache.snapshot().keySet()) {
+                if (key.startsWith(prefix))
+                    mCache.remove(key);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (mCache) {
+            mGeneration++;
+            mCache.evictAll();
+        }
+    }
+
+    String getHitRate() {
+        final int hits = mCache.hitCount();
+        final int total = hits + mCache.missCount();
+        return String.format("%d/%d hits", hits, total);
+    }
+
+    Bundle getStats() {
+        final Bundle stats = new Bundle();
+        stats.putInt(ScoresContract.CacheStats.HITS, mCache.hitCount());
+        stats.putInt(ScoresContract.CacheStats.MISSES, mCache.missCount());
+        stats.putInt(ScoresContract.CacheStats.EVICTIONS, mCache.evictionCount());
+        stats.putInt(ScoresContract.CacheStats.SIZE, mCache.size());
+        return stats;
+    }
+
+    private static Cursor newCursor(Result result) {
+        final MatrixCursor cursor = new MatrixCursor(result.mColumns, result.mRows.length);
+        for (Object[] row : result.mRows) {
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private static Object getValue(Cursor cursor, int column) {
+        switch (cursor.getType(column)) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                return cursor.getLong(column);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return cursor.getDouble(column);
+            case Cursor.FIELD_TYPE_STRING:
+                return cursor.getString(column);
+            case Cursor.FIELD_TYPE_BLOB:
+                return cursor.getBlob(column);
+            default:
+                return null;
+        }
+    }
+}
@@ -2,183 +2,336 @@ package com.ewintory.footballscores.service;
 
 import android.app.IntentService;
 import android.content.ContentValues;
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.preference.PreferenceManager;
 import android.util.Log;
+import android.util.Pair;
 
-import com.ewintory.footballscores.BuildConfig;
+import com.ewintory.footballscores.R;
+import com.ewintory.footballscores.ScoresApplication;
+import com.ewintory.footballscores.appwidget.TodaySnapshotStore;
+import com.ewintory.footballscores.network.FixturesParser;
 import com.ewintory.footballscores.network.FootballApi;
-import com.ewintory.footballscores.network.model.Fixture;
-import com.ewintory.footballscores.network.model.FixturesResponse;
+import com.ewintory.footballscores.network.NotModifiedInterceptor;
+import com.ewintory.footballscores.network.model.FixtureRow;
 import com.ewintory.footballscores.network.model.HrefWrapper;
 import com.ewintory.footballscores.network.model.Season;
 import com.ewintory.footballscores.network.model.Team;
-import com.ewintory.footballscores.network.model.TeamResponse;
 import com.ewintory.footballscores.provider.ScoresContract;
-
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.ewintory.footballscores.provider.ScoresDBHelper;
+import com.ewintory.footballscores.util.FixtureTimeConverter;
+import com.ewintory.footballscores.util.Utilities;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import retrofit.Endpoints;
-import retrofit.RequestInterceptor;
-import retrofit.RestAdapter;
+import retrofit.RetrofitError;
+import retrofit.client.Response;
 
 
 public final class FetchService extends IntentService {
     private static final String TAG = FetchService.class.getSimpleName();
 
+    // Sent when today's matches changed, see TodaySnapshotStore
     public static final String BROADCAST_DATA_UPDATED = "com.ewintory.footballscores.BROADCAST_DATA_UPDATED";
 
+    // Refreshes the stored seasons and teams, queued by a fixtures refresh once they are stale
+    public static final String ACTION_SYNC_METADATA = "com.ewintory.footballscores.action.SYNC_METADATA";
+
+    // Fetches the local days from EXTRA_FIRST_DAY to EXTRA_LAST_DAY on demand, see #fetchDays(Context, int, int)
+    public static final String ACTION_FETCH_DAYS = "com.ewintory.footballscores.action.FETCH_DAYS";
+    public static final String EXTRA_FIRST_DAY = "com.ewintory.footballscores.extra.FIRST_DAY";
+    public static final String EXTRA_LAST_DAY = "com.ewintory.footballscores.extra.LAST_DAY";
+
     private static final String API_URL = "http://api.football-data.org/alpha";
     private static final String SEASON_LINK = API_URL + "/soccerseasons/";
     private static final String MATCH_LINK = API_URL + "/fixtures/";
     private static final String TEAMS_LINK = API_URL + "/teams/";
 
-    private final FootballApi mFootballApi;
+    // Matches older than this many days left the "p3" fetch window and are dropped on sync
+    private static final int RETENTION_DAYS = 3;
+    // Days ahead covered by the "n3" fetch window
+    private static final int LOOKAHEAD_DAYS = 3;
+
+    // Validator of the last response of a time frame that the database stored, see #getSyncedValidator
+    private static final String PREF_SYNCED_VALIDATOR = "fixtures_synced_validator_";
+
+    private static final int MAX_FETCH_THREADS = 3;
+    private static final long FETCH_TIMEOUT_SECONDS = 30;
 
-    private Map<String, Season> mSeasonsMap;
-    private Map<String, Team> mTeamsMap;
+    // Requests over the budget wait in the rate limiter, so the timeout covers the whole batch
+    private static final int MAX_METADATA_THREADS = 4;
+    private static final long METADATA_TIMEOUT_SECONDS = 120;
+
+    private FootballApi mFootballApi;
 
     public FetchService() {
         super(TAG);
+    }
 
-        final RestAdapter restAdapter = new RestAdapter.Builder()
-                .setEndpoint(Endpoints.newFixedEndpoint(API_URL))
-                .setLogLevel(RestAdapter.LogLevel.BASIC)
-                .setRequestInterceptor(new RequestInterceptor() {
-                    @Override public void intercept(RequestFacade request) {
-                        request.addHeader("X-Auth-Token", BuildConfig.FOOTBALL_DATA_API_KEY);
-                    }
-                })
-                .build();
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        mFootballApi = ScoresApplication.get(this).getFootballApi();
+    }
+
+    /**
+     * Queues an on-demand fetch of the local days from {@code firstDay} to {@code lastDay},
+     * inclusive. Fetched days are stored until a scheduled refresh drops them as too old.
+     */
+    public static void fetchDays(Context context, int firstDay, int lastDay) {
+        context.startService(new Intent(context, FetchService.class)
+                .setAction(ACTION_FETCH_DAYS)
+                .putExtra(EXTRA_FIRST_DAY, firstDay)
+                .putExtra(EXTRA_LAST_DAY, lastDay));
+    }
 
-        mFootballApi = restAdapter.create(FootballApi.class);
+    /**
+     * @return whether the scheduled refreshes keep {@code day} stored
+     */
+    public static boolean isSyncedDay(int day, int today) {
+        return day >= today - RETENTION_DAYS && day <= today + LOOKAHEAD_DAYS;
     }
 
     @Override
     protected void onHandleIntent(Intent intent) {
-        fetchFixtures("n3", "p3");
+        if (ACTION_SYNC_METADATA.equals(intent.getAction())) {
+            syncMetadata();
+            return;
+        }
+        if (ACTION_FETCH_DAYS.equals(intent.getAction())) {
+            fetchDays(intent.getIntExtra(EXTRA_FIRST_DAY, 0), intent.getIntExtra(EXTRA_LAST_DAY, 0));
+            return;
+        }
+
+        // Fixtures go first with whatever metadata is stored, the metadata refresh runs right after
+        if (isMetadataStale()) {
+            startService(new Intent(this, FetchService.class).setAction(ACTION_SYNC_METADATA));
+        }
+        final boolean changed = fetchFixtures("n3", "p3");
+        new RefreshScheduler(this).onRefreshed(changed);
     }
 
-    private void fetchFixtures(String... timeFrames) {
-        List<Fixture> fixtures = null;
+    /**
+     * Fetches every time frame in parallel and merges the results by match id. A time frame that
+     * fails or times out is logged and skipped, fixtures of the others are still processed. Once
+     * the merge is stored, the validators of the fetched responses are recorded as synced.
+     *
+     * @return whether any stored match changed
+     */
+    private boolean fetchFixtures(String... timeFrames) {
+        final Map<Long, String> crests = queryTeamCrests();
+        final Map<Integer, String> captions = querySeasonCaptions();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(timeFrames.length, MAX_FETCH_THREADS));
+        final Map<String, Future<Pair<String, List<ContentValues>>>> futures = new LinkedHashMap<>(timeFrames.length);
 
         try {
-            for (String tf : timeFrames) {
-                FixturesResponse response = mFootballApi.fixtures(tf);
-                if (fixtures == null)
-                    fixtures = response.getFixtures();
-                else
-                    fixtures.addAll(response.getFixtures());
+            for (final String tf : timeFrames) {
+                futures.put(tf, executor.submit(new Callable<Pair<String, List<ContentValues>>>() {
+                    @Override public Pair<String, List<ContentValues>> call() throws Exception {
+                        return fetchTimeFrame(tf, crests, captions);
+                    }
+                }));
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Exception here" + e.getMessage());
+
+            final Map<Long, ContentValues> matches = new LinkedHashMap<>();
+            final Map<String, String> validators = new HashMap<>(timeFrames.length);
+            for (Map.Entry<String, Future<Pair<String, List<ContentValues>>>> entry : futures.entrySet()) {
+                try {
+                    final Pair<String, List<ContentValues>> result =
+                            entry.getValue().get(FETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    validators.put(entry.getKey(), result.first);
+                    for (ContentValues match : result.second) {
+                        matches.put(match.getAsLong(ScoresContract.ScoreEntry.COLUMN_MATCH_ID), match);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } catch (ExecutionException | TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    Log.e(TAG, "Failed to fetch time frame " + entry.getKey() + ": " + e.getMessage());
+                }
+            }
+
+            final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+            final boolean changed = !matches.isEmpty() && syncMatches(matches.values(), getRetainFrom(converter)) > 0;
+            putSyncedValidators(validators);
+            return changed;
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        if (fixtures != null)
-            processFixtures(fixtures);
+    /**
+     * Fetches the days outside the scheduled fetch windows. Nothing is dropped by this sync, the
+     * server filters by UTC date so the neighbouring UTC dates of the local days are requested too.
+     */
+    private void fetchDays(int firstDay, int lastDay) {
+        final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+        final String start = FixtureTimeConverter.formatDate(toUtcEpochDay(converter.getDayStartMillis(firstDay)));
+        final String end = FixtureTimeConverter.formatDate(toUtcEpochDay(converter.getDayStartMillis(lastDay + 1) - 1));
+        final String range = start + ".." + end;
+
+        try {
+            // Date ranges vary, so no validator is recorded and a 304 is stored like a 200
+            final List<ContentValues> values = parseFixtures(range, mFootballApi.fixtures(start, end),
+                    null, queryTeamCrests(), querySeasonCaptions());
+            if (!values.isEmpty())
+                syncMatches(values, -1);
+        } catch (RetrofitError | IOException e) {
+            Log.e(TAG, "Failed to fetch days " + range + ": " + e.getMessage());
+        }
     }
 
-    private void processFixtures(final List<Fixture> fixtures) {
-        Log.v(TAG, String.format("Processing fixtures, %d total items.", fixtures.size()));
+    private static int toUtcEpochDay(long utcMillis) {
+        return (int) TimeUnit.MILLISECONDS.toDays(utcMillis);
+    }
 
-        //final Map<String, Team> teamMap = getTeamsMap();
-        //final Map<String, Season> seasonMap = getSeasonsMap();
-        final Map<String, Integer> matchDateMap = new HashMap<>(); // for testing
+    /**
+     * @return the response's validator and its rows
+     */
+    private Pair<String, List<ContentValues>> fetchTimeFrame(final String timeFrame, final Map<Long, String> crests,
+                                                             final Map<Integer, String> captions) throws IOException {
+        final Response response = mFootballApi.fixtures(timeFrame);
+        return Pair.create(NotModifiedInterceptor.getValidator(response),
+                parseFixtures(timeFrame, response, getSyncedValidator(timeFrame), crests, captions));
+    }
 
-        //Match data
-        String matchId = null;
-        String leagueId = null;
-        String leagueCaption = null;
-        String matchDate = null;
-        String matchTime = null;
-        String homeTeamCrest = null;
-        String awayTeamCrest = null;
-        String homeTeamName = null;
-        String awayTeamName = null;
-        Long goalsHomeTeam = null;
-        Long goalsAwayTeam = null;
-        Long matchDay = null;
-
-        //ContentValues to be inserted
-        Vector<ContentValues> values = new Vector<>(fixtures.size());
-        for (Fixture fixture : fixtures) {
-            matchId = extractId(fixture.getLinks().getSelf(), MATCH_LINK);
-            leagueId = extractId(fixture.getLinks().getSoccerSeason(), SEASON_LINK);
-
-            //This if statement controls which leagues we're interested in the data from.
-            //add leagues here in order to have them be added to the DB.
-            // If you are finding no data in the app, check that this contains all the leagues.
-            // If it doesn't, that can cause an empty DB, bypassing the dummy data routine.
-            if (leagueId.equals(ScoresContract.Leagues.PREMIER_LEAGUE) ||
-                    leagueId.equals(ScoresContract.Leagues.SERIE_A) ||
-                    leagueId.equals(ScoresContract.Leagues.CHAMPIONS_LEAGUE) ||
-                    leagueId.equals(ScoresContract.Leagues.BUNDESLIGA1) ||
-                    leagueId.equals(ScoresContract.Leagues.BUNDESLIGA2) ||
-                    leagueId.equals(ScoresContract.Leagues.BUNDESLIGA3) ||
-                    leagueId.equals(ScoresContract.Leagues.EREDIVISIE) ||
-                    leagueId.equals(ScoresContract.Leagues.LIGUE1) ||
-                    leagueId.equals(ScoresContract.Leagues.LIGUE2) ||
-                    leagueId.equals(ScoresContract.Leagues.SEGUNDA_DIVISION) ||
-                    leagueId.equals(ScoresContract.Leagues.PRIMERA_LIGA) ||
-                    leagueId.equals(ScoresContract.Leagues.PRIMERA_DIVISION)) {
-
-                //leagueCaption = seasonMap.get(leagueId).getCaption();
-                matchDate = fixture.getDate();
-                matchTime = matchDate.substring(matchDate.indexOf("T") + 1, matchDate.indexOf("Z"));
-                matchDate = matchDate.substring(0, matchDate.indexOf("T"));
-                SimpleDateFormat matchDateFormat = new SimpleDateFormat("yyyy-MM-ddHH:mm:ss", Locale.US);
-                matchDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-                try {
-                    Date parseddate = matchDateFormat.parse(matchDate + matchTime);
-                    SimpleDateFormat new_date = new SimpleDateFormat("yyyy-MM-dd:HH:mm", Locale.US);
-                    new_date.setTimeZone(TimeZone.getDefault());
-                    matchDate = new_date.format(parseddate);
-                    matchTime = matchDate.substring(matchDate.indexOf(":") + 1);
-                    matchDate = matchDate.substring(0, matchDate.indexOf(":"));
-                } catch (Exception e) {
-                    Log.d(TAG, "error here!");
-                    Log.e(TAG, e.getMessage());
-                }
+    /**
+     * Parses the response token by token into rows for the provider, see {@link FixturesParser}.
+     * Only the model object graph is skipped, the rows are collected for the sync, which merges
+     * the time frames and stores them in one transaction.
+     *
+     * @param label          time frame or date range of the request, for logging
+     * @param syncedValidator validator of the last response of the request the database stored,
+     *                       or {@code null} if unknown
+     * @return rows of the response, or an empty list when the server reported them as
+     * not modified since the response the database stored
+     */
+    static List<ContentValues> parseFixtures(final String label, Response response,
+                                             final String syncedValidator,
+                                             final Map<Long, String> crests,
+                                             final Map<Integer, String> captions) throws IOException {
+        // A cached body is parsed again unless it is the one stored, a sync may have failed after
+        // it was cached or a schema upgrade may have left columns of its rows empty
+        if (NotModifiedInterceptor.isNotModified(response) && syncedValidator != null
+                && syncedValidator.equals(NotModifiedInterceptor.getValidator(response))) {
+            Log.v(TAG, "Fixtures " + label + " not modified, skipping");
+            response.getBody().in().close();
+            return Collections.emptyList();
+        }
+
+        final List<ContentValues> values = new ArrayList<>();
+        int total = FixturesParser.parse(new InputStreamReader(response.getBody().in(), "UTF-8"),
+                new FixturesParser.Handler() {
+                    @Override public void onFixture(FixtureRow row) {
+                        ContentValues matchValues = toMatchValues(row, crests, captions);
+                        if (matchValues != null)
+                            values.add(matchValues);
+                    }
+                });
+        Log.v(TAG, String.format("Fixtures %s parsed, %d of %d kept.", label, values.size(), total));
+        return values;
+    }
 
-                homeTeamName = fixture.getHomeTeamName();
-                awayTeamName = fixture.getAwayTeamName();
+    /**
+     * @param crests    crest urls by team id, see {@link #queryTeamCrests()}
+     * @param captions  league captions by season id, see {@link #querySeasonCaptions()}
+     * @return values for the provider, or {@code null} if the fixture's league is not supported
+     */
+    private static ContentValues toMatchValues(FixtureRow row, Map<Long, String> crests,
+                                               Map<Integer, String> captions) {
+        final int leagueId = row.getLeagueId();
+        if (!isSupportedLeague(leagueId)) {
+            Log.w(TAG, "Invalid league id=" + leagueId);
+            return null;
+        }
 
-//                homeTeamCrest = teamMap.get(extractId(fixture.getLinks().getHomeTeam(), TEAMS_LINK)).getCrestUrl();
-//                awayTeamCrest = teamMap.get(extractId(fixture.getLinks().getAwayTeam(), TEAMS_LINK)).getCrestUrl();
+        final long kickoff;
+        try {
+            kickoff = FixtureTimeConverter.parseUtcMillis(row.getDate());
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Invalid date of match id=" + row.getMatchId() + ": " + e.getMessage());
+            return null;
+        }
 
-                goalsHomeTeam = fixture.getResult().getGoalsHomeTeam();
-                goalsAwayTeam = fixture.getResult().getGoalsAwayTeam();
+        ContentValues matchValues = new ContentValues();
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_MATCH_ID, row.getMatchId());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_DATE, kickoff);
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME, row.getHomeTeamName());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY, row.getAwayTeamName());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME_ID, row.getHomeTeamId());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY_ID, row.getAwayTeamId());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME_CREST, crests.get(row.getHomeTeamId()));
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY_CREST, crests.get(row.getAwayTeamId()));
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME_GOALS, row.getHomeGoals());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS, row.getAwayGoals());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_LEAGUE, leagueId);
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_LEAGUE_CAPTION, captions.get(leagueId));
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_MATCH_DAY, row.getMatchDay());
+        matchValues.put(ScoresContract.ScoreEntry.COLUMN_STATUS, row.getStatus());
+        return matchValues;
+    }
 
-                matchDay = fixture.getMatchDay();
-                if (!matchDateMap.containsKey(matchDate)) {
-                    matchDateMap.put(matchDate, 1);
-                } else {
-                    matchDateMap.put(matchDate, matchDateMap.get(matchDate) + 1);
-                }
+    private static boolean isSupportedLeague(int leagueId) {
+        //This if statement controls which leagues we're interested in the data from.
+        //add leagues here in order to have them be added to the DB.
+        // If you are finding no data in the app, check that this contains all the leagues.
+        // If it doesn't, that can cause an empty DB, bypassing the dummy data routine.
+        switch (leagueId) {
+            case Utilities.Leagues.PREMIER_LEAGUE:
+            case Utilities.Leagues.SERIE_A:
+            case Utilities.Leagues.CHAMPIONS_LEAGUE:
+            case Utilities.Leagues.BUNDESLIGA1:
+            case Utilities.Leagues.BUNDESLIGA2:
+            case Utilities.Leagues.BUNDESLIGA3:
+            case Utilities.Leagues.EREDIVISIE:
+            case Utilities.Leagues.LIGUE1:
+            case Utilities.Leagues.LIGUE2:
+            case Utilities.Leagues.SEGUNDA_DIVISION:
+            case Utilities.Leagues.PRIMERA_LIGA:
+            case Utilities.Leagues.PRIMERA_DIVISION:
+                return true;
+            default:
+                return false;
+        }
+    }
 
-                ContentValues matchValues = new ContentValues();
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_MATCH_ID, matchId);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_DATE, matchDate);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_TIME, matchTime);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME, homeTeamName);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY, awayTeamName);
-//                matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME_CREST, homeTeamCrest);
-//                matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY_CREST, awayTeamCrest);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_HOME_GOALS, goalsHomeTeam);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS, goalsAwayTeam);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_LEAGUE, leagueId);
-                //matchValues.put(ScoresContract.ScoreEntry.COLUMN_LEAGUE_CAPTION, leagueCaption);
-                matchValues.put(ScoresContract.ScoreEntry.COLUMN_MATCH_DAY, matchDay);
-
-                values.add(matchValues);
+    /**
+     * @param retainFrom earliest kickoff to keep, epoch millis; negative to keep every stored match
+     * @return number of stored matches inserted, updated or deleted
+     */
+    private int syncMatches(final Collection<ContentValues> matches, long retainFrom) {
+        Log.v(TAG, String.format("Processing fixtures, %d total items.", matches.size()));
+
+        final FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getDefault());
+        final Map<String, Integer> matchDateMap = new HashMap<>(); // for testing
+        for (ContentValues match : matches) {
+            String matchDate = FixtureTimeConverter.formatDate(converter.toLocalEpochDay(
+                    match.getAsLong(ScoresContract.ScoreEntry.COLUMN_DATE)));
+            if (!matchDateMap.containsKey(matchDate)) {
+                matchDateMap.put(matchDate, 1);
             } else {
-                Log.w(TAG, "Invalid league id=" + leagueId);
+                matchDateMap.put(matchDate, matchDateMap.get(matchDate) + 1);
             }
         }
 
@@ -186,50 +339,161 @@ public final class FetchService extends IntentService {
             Log.v(TAG, String.format("Fetched %d matches for date %s", matchDateMap.get(date), date));
         }
 
-        ContentValues[] contentValues = new ContentValues[values.size()];
-        values.toArray(contentValues);
-        int insertedData = getContentResolver().bulkInsert(ScoresContract.BASE_CONTENT_URI, contentValues);
+        ContentValues[] contentValues = new ContentValues[matches.size()];
+        matches.toArray(contentValues);
+        int changedData = getContentResolver().bulkInsert(
+                ScoresContract.ScoreEntry.buildSyncUri(retainFrom), contentValues);
 
-        if (insertedData > 0) {
-            Log.v(TAG, "Successfully Inserted : " + String.valueOf(insertedData));
+        if (changedData > 0) {
+            Log.v(TAG, "Successfully Synced : " + String.valueOf(changedData));
+        }
+        // Checked after every sync, the snapshot also goes stale when the day changes
+        if (new TodaySnapshotStore(this).update()) {
             sendBroadcast(new Intent(BROADCAST_DATA_UPDATED).setPackage(getPackageName()));
         }
+        return changedData;
     }
 
-    private Map<String, Season> getSeasonsMap() {
-        if (mSeasonsMap == null) {
-            final List<Season> seasons = mFootballApi.seasons();
-            Log.v(TAG, String.format("Seasons loaded, %d items", seasons.size()));
-
-            String seasonId = null;
+    /**
+     * @return validator of the last response of {@code timeFrame} stored by the current database
+     * version, or {@code null}
+     */
+    private String getSyncedValidator(String timeFrame) {
+        final String value = PreferenceManager.getDefaultSharedPreferences(this)
+                .getString(PREF_SYNCED_VALIDATOR + timeFrame, null);
+        final String prefix = ScoresDBHelper.DATABASE_VERSION + ":";
+        return value != null && value.startsWith(prefix) ? value.substring(prefix.length()) : null;
+    }
 
-            mSeasonsMap = new HashMap<>(seasons.size());
-            for (Season season : seasons) {
-                seasonId = season.getLinks().getSelf().getHref();
-                seasonId = seasonId.replace(SEASON_LINK, "");
-                mSeasonsMap.put(seasonId, season);
+    private void putSyncedValidators(Map<String, String> validators) {
+        final SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(this).edit();
+        for (Map.Entry<String, String> entry : validators.entrySet()) {
+            final String key = PREF_SYNCED_VALIDATOR + entry.getKey();
+            if (entry.getValue() != null) {
+                editor.putString(key, ScoresDBHelper.DATABASE_VERSION + ":" + entry.getValue());
+            } else {
+                editor.remove(key);
             }
         }
-        return mSeasonsMap;
+        editor.apply();
+    }
+
+    private static long getRetainFrom(FixtureTimeConverter converter) {
+        final int today = converter.toLocalEpochDay(System.currentTimeMillis());
+        return converter.getDayStartMillis(today - RETENTION_DAYS);
+    }
+
+    /**
+     * Seasons are written after their teams, so the oldest season tells the age of both tables.
+     */
+    private boolean isMetadataStale() {
+        final long ttl = TimeUnit.HOURS.toMillis(getResources().getInteger(R.integer.metadata_ttl_hours));
+        Cursor cursor = getContentResolver().query(ScoresContract.SeasonEntry.CONTENT_URI,
+                new String[]{"MIN(" + ScoresContract.SeasonEntry.COLUMN_UPDATED + ")"}, null, null, null);
+        if (cursor == null)
+            return true;
+        try {
+            return !cursor.moveToFirst() || cursor.isNull(0)
+                    || System.currentTimeMillis() - cursor.getLong(0) > ttl;
+        } finally {
+            cursor.close();
+        }
     }
 
-    private Map<String, Team> getTeamsMap() {
-        if (mTeamsMap == null) {
-            final Map<String, Season> seasonMap = getSeasonsMap();
+    /**
+     * Loads the seasons of the supported leagues and replaces the stored ones, teams of every
+     * season are fetched in parallel. Nothing is stored if a request fails, the next fixtures
+     * refresh queues another attempt.
+     */
+    private void syncMetadata() {
+        final long now = System.currentTimeMillis();
+        final List<ContentValues> seasonValues = new ArrayList<>();
+        final Map<Long, ContentValues> teamValues = new HashMap<>(256);
+        final ExecutorService executor = Executors.newFixedThreadPool(MAX_METADATA_THREADS);
 
-            Map<String, Team> teamMap = new HashMap<>(100);
+        try {
+            final Map<Long, Future<List<Team>>> teamFutures = new LinkedHashMap<>();
+            for (Season season : mFootballApi.seasons()) {
+                final long seasonId = Long.parseLong(extractId(season.getLinks().getSelf(), SEASON_LINK));
+                if (!isSupportedLeague((int) seasonId))
+                    continue;
+
+                teamFutures.put(seasonId, executor.submit(new Callable<List<Team>>() {
+                    @Override public List<Team> call() throws Exception {
+                        return mFootballApi.teams(String.valueOf(seasonId)).getTeams();
+                    }
+                }));
+
+                ContentValues values = new ContentValues();
+                values.put(ScoresContract.SeasonEntry.COLUMN_SEASON_ID, seasonId);
+                values.put(ScoresContract.SeasonEntry.COLUMN_CAPTION, season.getCaption());
+                values.put(ScoresContract.SeasonEntry.COLUMN_LEAGUE, season.getLeague());
+                values.put(ScoresContract.SeasonEntry.COLUMN_YEAR, season.getYear());
+                values.put(ScoresContract.SeasonEntry.COLUMN_UPDATED, now);
+                seasonValues.add(values);
+            }
 
-            for (String seasonId : seasonMap.keySet()) {
-                TeamResponse teamResponse = mFootballApi.teams(seasonId);
-                for (Team team : teamResponse.getTeams()) {
-                    teamMap.put(extractId(team.getLinks().getSelf(), TEAMS_LINK), team);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(METADATA_TIMEOUT_SECONDS);
+            for (Future<List<Team>> future : teamFutures.values()) {
+                for (Team team : future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    final long teamId = Long.parseLong(extractId(team.getLinks().getSelf(), TEAMS_LINK));
+                    ContentValues values = new ContentValues();
+                    values.put(ScoresContract.TeamEntry.COLUMN_TEAM_ID, teamId);
+                    values.put(ScoresContract.TeamEntry.COLUMN_NAME, team.getName());
+                    values.put(ScoresContract.TeamEntry.COLUMN_CREST_URL, team.getCrestUrl());
+                    values.put(ScoresContract.TeamEntry.COLUMN_UPDATED, now);
+                    teamValues.put(teamId, values);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RetrofitError | NumberFormatException | ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Failed to sync seasons and teams: " + e.getMessage());
+            return;
+        } finally {
+            executor.shutdownNow();
+        }
 
-            mTeamsMap = teamMap;
-            Log.v(TAG, String.format("Teams fetched, %d total items.", mTeamsMap.size()));
+        getContentResolver().bulkInsert(ScoresContract.TeamEntry.CONTENT_URI,
+                teamValues.values().toArray(new ContentValues[teamValues.size()]));
+        getContentResolver().bulkInsert(ScoresContract.SeasonEntry.CONTENT_URI,
+                seasonValues.toArray(new ContentValues[seasonValues.size()]));
+        Log.v(TAG, String.format("Metadata synced, %d seasons, %d teams.", seasonValues.size(), teamValues.size()));
+    }
+
+    private Map<Long, String> queryTeamCrests() {
+        final Map<Long, String> crests = new HashMap<>();
+        Cursor cursor = getContentResolver().query(ScoresContract.TeamEntry.CONTENT_URI,
+                new String[]{ScoresContract.TeamEntry.COLUMN_TEAM_ID, ScoresContract.TeamEntry.COLUMN_CREST_URL},
+                null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    crests.put(cursor.getLong(0), cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return crests;
+    }
+
+    private Map<Integer, String> querySeasonCaptions() {
+        final Map<Integer, String> captions = new HashMap<>();
+        Cursor cursor = getContentResolver().query(ScoresContract.SeasonEntry.CONTENT_URI,
+                new String[]{ScoresContract.SeasonEntry.COLUMN_SEASON_ID, ScoresContract.SeasonEntry.COLUMN_CAPTION},
+                null, null, null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    captions.put(cursor.getInt(0), cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
         }
-        return mTeamsMap;
+        return captions;
     }
 
     private static String extractId(HrefWrapper hrefWrapper, String link) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.service;
+
+import com.ewintory.footballscores.provider.ScoresContract;
+import com.ewintory.footballscores.util.Clock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the time of the next fixtures refresh from the state of the stored matches:
+ * <ul>
+ * <li>a match is in play: poll every {@link #LIVE_INTERVAL}</li>
+ * <li>a match kicks off within {@link #NEAR_KICKOFF}: poll from {@link #NEAR_INTERVAL}, backing
+ * off while refreshes bring no changes, but never past the kickoff</li>
+ * <li>a later kickoff is known: sleep until it</li>
+ * <li>nothing is scheduled: back off from {@link #NEAR_INTERVAL} up to {@link #MAX_IDLE_INTERVAL}</li>
+ * </ul>
+ * Pure Java and driven by a {@link Clock}, so schedules can be checked in unit tests.
+ */
+public final class RefreshPolicy {
+
+    static final long LIVE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    static final long NEAR_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    static final long NEAR_KICKOFF = TimeUnit.HOURS.toMillis(2);
+    static final long MAX_IDLE_INTERVAL = TimeUnit.HOURS.toMillis(6);
+
+    // A timed match is considered in play this long after its kickoff even if the status lags
+    static final long MATCH_DURATION = TimeUnit.MINUTES.toMillis(115);
+
+    private final Clock mClock;
+
+    public RefreshPolicy(Clock clock) {
+        mClock = clock;
+    }
+
+    /**
+     * @param kickoffs      kickoffs of the stored matches, epoch millis
+     * @param statuses      statuses of the same matches, see {@link ScoresContract.MatchStatus}
+     * @param unchangedRuns refreshes in a row that did not change any match
+     * @return time of the next refresh, epoch millis
+     */
+    public long getNextRefreshTime(long[] kickoffs, String[] statuses, int unchangedRuns) {
+        final long now = mClock.currentTimeMillis();
+        long nextKickoff = Long.MAX_VALUE;
+
+        for (int i = 0; i < kickoffs.length; i++) {
+            final long kickoff = kickoffs[i];
+            final String status = statuses[i];
+
+            if (ScoresContract.MatchStatus.IN_PLAY.equals(status))
+                return now + LIVE_INTERVAL;
+            if (!isPending(status))
+                continue;
+            if (kickoff <= now) {
+                if (now < kickoff + MATCH_DURATION)
+                    return now + LIVE_INTERVAL;
+            } else if (kickoff < nextKickoff) {
+                nextKickoff = kickoff;
+            }
+        }
+
+        final long backoff = getBackoff(unchangedRuns);
+        if (nextKickoff == Long.MAX_VALUE)
+            return now + backoff;
+        if (nextKickoff - now <= NEAR_KICKOFF)
+            return Math.min(now + backoff, nextKickoff);
+        return nextKickoff;
+    }
+
+    static long getBackoff(int unchangedRuns) {
+        // NEAR_INTERVAL << 5 is already past the cap, avoids overflowing the shift
+        final int shift = Math.min(Math.max(unchangedRuns, 0), 5);
+        return Math.min(NEAR_INTERVAL << shift, MAX_IDLE_INTERVAL);
+    }
+
+    // A missing status is treated as scheduled
+    private static boolean isPending(String status) {
+        return status == null
+                || ScoresContract.MatchStatus.SCHEDULED.equals(status)
+                || ScoresContract.MatchStatus.TIMED.equals(status);
+    }
+}
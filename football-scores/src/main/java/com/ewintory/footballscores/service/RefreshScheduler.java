@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.service;
+
+import android.annotation.TargetApi;
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.os.Build;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import com.ewintory.footballscores.provider.ScoresContract;
+import com.ewintory.footballscores.util.Clock;
+
+import java.util.Date;
+
+/**
+ * Schedules the next {@link FetchService} run with the {@link AlarmManager} at the time picked by
+ * {@link RefreshPolicy} from the stored matches. A new schedule replaces the pending one.
+ */
+public final class RefreshScheduler {
+    private static final String TAG = RefreshScheduler.class.getSimpleName();
+
+    private static final String PREF_UNCHANGED_RUNS = "refresh_unchanged_runs";
+
+    private static final String MATCHES_FROM =
+            ScoresContract.ScoreEntry.COLUMN_DATE + " >= ?";
+
+    private static final String[] MATCH_STATE_PROJECTION = {
+            ScoresContract.ScoreEntry.COLUMN_DATE,
+            ScoresContract.ScoreEntry.COLUMN_STATUS
+    };
+
+    private final Context mContext;
+    private final Clock mClock;
+    private final RefreshPolicy mPolicy;
+
+    public RefreshScheduler(Context context) {
+        mContext = context.getApplicationContext();
+        mClock = Clock.SYSTEM;
+        mPolicy = new RefreshPolicy(mClock);
+    }
+
+    /**
+     * Called after every fixtures refresh, a refresh that failed counts as unchanged.
+     *
+     * @param changed whether the refresh changed any stored match
+     */
+    public void onRefreshed(boolean changed) {
+        final SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(mContext);
+        final int unchangedRuns = changed ? 0 : prefs.getInt(PREF_UNCHANGED_RUNS, 0) + 1;
+        prefs.edit().putInt(PREF_UNCHANGED_RUNS, unchangedRuns).apply();
+        schedule(unchangedRuns);
+    }
+
+    private void schedule(int unchangedRuns) {
+        // Matches that kicked off earlier than this can no longer be in play
+        final long from = mClock.currentTimeMillis() - RefreshPolicy.MATCH_DURATION;
+        final Cursor cursor = mContext.getContentResolver().query(
+                ScoresContract.BASE_CONTENT_URI, MATCH_STATE_PROJECTION, MATCHES_FROM,
+                new String[]{String.valueOf(from)}, null);
+
+        long[] kickoffs = new long[0];
+        String[] statuses = new String[0];
+        if (cursor != null) {
+            try {
+                kickoffs = new long[cursor.getCount()];
+                statuses = new String[cursor.getCount()];
+                while (cursor.moveToNext()) {
+                    kickoffs[cursor.getPosition()] = cursor.getLong(0);
+                    statuses[cursor.getPosition()] = cursor.getString(1);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        final long triggerAt = mPolicy.getNextRefreshTime(kickoffs, statuses, unchangedRuns);
+        final boolean live = triggerAt - mClock.currentTimeMillis() <= RefreshPolicy.LIVE_INTERVAL;
+        setAlarm(triggerAt, live);
+        Log.v(TAG, String.format("Next refresh at %s (%d matches ahead, %d unchanged runs)",
+                new Date(triggerAt), kickoffs.length, unchangedRuns));
+    }
+
+    /**
+     * Live refreshes are exact, the others may be batched with other alarms to save battery.
+     */
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private void setAlarm(long triggerAt, boolean exact) {
+        final AlarmManager alarmManager = (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
+        final PendingIntent operation = PendingIntent.getService(mContext, 0,
+                new Intent(mContext, FetchService.class), PendingIntent.FLAG_UPDATE_CURRENT);
+
+        if (exact && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            alarmManager.setExact(AlarmManager.RTC, triggerAt, operation);
+        } else {
+            alarmManager.set(AlarmManager.RTC, triggerAt, operation);
+        }
+    }
+}
@@ -17,90 +17,271 @@
 package com.ewintory.footballscores.ui.adapter;
 
 import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcelable;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
-import android.support.v4.app.FragmentStatePagerAdapter;
-import android.text.format.Time;
+import android.support.v4.app.FragmentTransaction;
+import android.text.format.DateUtils;
 import android.util.Log;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
 
 import com.ewintory.footballscores.R;
 import com.ewintory.footballscores.ui.fragment.ScoresFragment;
+import com.ewintory.footballscores.util.FixtureTimeConverter;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
+import java.util.TimeZone;
 
-public final class PagerAdapter extends FragmentStatePagerAdapter {
+/**
+ * Pages a sliding window of days around an anchor day. Once the current page gets close to
+ * either end of the window, {@link #reanchor(int)} moves the window so the user can page
+ * through any number of days; pages are identified by their day, so they keep their fragments
+ * when the window moves.
+ * <p/>
+ * Works like {@link android.support.v4.app.FragmentStatePagerAdapter}: fragments of pages the
+ * pager lets go are removed and only their saved state is kept, for days inside the window.
+ */
+public final class PagerAdapter extends android.support.v4.view.PagerAdapter {
     private static final String TAG = PagerAdapter.class.getSimpleName();
 
-    public static final int POSITION_TODAY = 2;
-    public static final int PAGE_SIZE = 5;
+    // Days on each side of the anchor day
+    private static final int WINDOW_RADIUS = 7;
+    private static final int WINDOW_SIZE = 2 * WINDOW_RADIUS + 1;
+    // The window moves once the current page is this close to either end
+    private static final int EDGE_PAGES = 2;
+    // Days this close to today are named by their weekday only
+    private static final int WEEKDAY_NAME_DAYS = 6;
+
+    private static final String STATE_DAYS = "days";
+    private static final String STATE_SAVED = "saved";
+    private static final String STATE_FRAGMENT = "f";
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
     private static final SimpleDateFormat DAY_FORMAT = new SimpleDateFormat("EEEE", Locale.US);
 
     private final Context mContext;
-    private Map<Integer, ScoresFragment> mPageReferenceMap = new HashMap<>();
+    private final FragmentManager mFragmentManager;
+    private final FixtureTimeConverter mConverter = new FixtureTimeConverter(TimeZone.getDefault());
+    private int mAnchorDay;
 
-    public PagerAdapter(Context context, FragmentManager fm) {
-        super(fm);
+    private final SparseArray<ScoresFragment> mFragments = new SparseArray<>();
+    private final SparseArray<Fragment.SavedState> mSavedStates = new SparseArray<>();
+    private FragmentTransaction mCurTransaction;
+    private Fragment mCurrentPrimaryItem;
+
+    /**
+     * @param anchorDay day in the middle of the initial window, see {@link FixtureTimeConverter#toLocalEpochDay(long)}
+     */
+    public PagerAdapter(Context context, FragmentManager fm, int anchorDay) {
         mContext = context;
+        mFragmentManager = fm;
+        mAnchorDay = anchorDay;
     }
 
-    @Override
-    public Fragment getItem(int position) {
-        Calendar calendar = Calendar.getInstance(Locale.US);
-        calendar.roll(Calendar.DAY_OF_MONTH, position - POSITION_TODAY);
-        ScoresFragment fragment = ScoresFragment.newInstance(DATE_FORMAT.format(calendar.getTime()));
+    public int getAnchorDay() {
+        return mAnchorDay;
+    }
 
-        Log.v(TAG, "getItem: position=" + position + ", date=" + DATE_FORMAT.format(calendar.getTime())
-                + ((position == POSITION_TODAY) ? "  <---- TODAY" : ""));
+    public int getDay(int position) {
+        return mAnchorDay + position - WINDOW_RADIUS;
+    }
 
-        mPageReferenceMap.put(position, fragment);
-        return fragment;
+    public int getPosition(int day) {
+        return day - mAnchorDay + WINDOW_RADIUS;
+    }
+
+    /**
+     * Centers the window on the page at {@code position} if it is close to an edge, then the
+     * pager has to be told the new position of the page and the tabs rebuilt.
+     *
+     * @return whether the window moved
+     */
+    public boolean reanchor(int position) {
+        if (position >= EDGE_PAGES && position < WINDOW_SIZE - EDGE_PAGES)
+            return false;
+
+        mAnchorDay = getDay(position);
+        for (int i = mSavedStates.size() - 1; i >= 0; i--) {
+            if (!isInWindow(mSavedStates.keyAt(i)))
+                mSavedStates.removeAt(i);
+        }
+        Log.v(TAG, "Window moved to " + FixtureTimeConverter.formatDate(mAnchorDay));
+        notifyDataSetChanged();
+        return true;
+    }
+
+    public boolean isInWindow(int day) {
+        final int position = getPosition(day);
+        return position >= 0 && position < WINDOW_SIZE;
     }
 
     @Override
     public int getCount() {
-        return PAGE_SIZE;
+        return WINDOW_SIZE;
+    }
+
+    @Override
+    public int getItemPosition(Object object) {
+        final int day = ((ScoresFragment) object).getDay();
+        return isInWindow(day) ? getPosition(day) : POSITION_NONE;
     }
 
     @Override
     public CharSequence getPageTitle(int position) {
-        Calendar calendar = Calendar.getInstance(Locale.US);
-        calendar.roll(Calendar.DAY_OF_WEEK, position - POSITION_TODAY);
-        return getDayName(mContext, calendar.getTimeInMillis());
+        return getDayName(getDay(position));
     }
 
-    public ScoresFragment getFragment(int key) {
-        return mPageReferenceMap.get(key);
+    public ScoresFragment getFragment(int position) {
+        return mFragments.get(getDay(position));
     }
 
     public void onDestroy() {
-        mPageReferenceMap.clear();
-    }
-
-    public String getDayName(Context context, long dateInMillis) {
-        // If the date is today, return the localized version of "Today" instead of the actual
-        // day name.
-
-        Time t = new Time();
-        t.setToNow();
-        int julianDay = Time.getJulianDay(dateInMillis, t.gmtoff);
-        int currentJulianDay = Time.getJulianDay(System.currentTimeMillis(), t.gmtoff);
-        if (julianDay == currentJulianDay) {
-            return context.getString(R.string.today);
-        } else if (julianDay == currentJulianDay + 1) {
-            return context.getString(R.string.tomorrow);
-        } else if (julianDay == currentJulianDay - 1) {
-            return context.getString(R.string.yesterday);
+        mFragments.clear();
+    }
+
+    @Override
+    public void startUpdate(ViewGroup container) {
+    }
+
+    @Override
+    public Object instantiateItem(ViewGroup container, int position) {
+        final int day = getDay(position);
+        ScoresFragment fragment = mFragments.get(day);
+        if (fragment != null)
+            return fragment;
+
+        if (mCurTransaction == null)
+            mCurTransaction = mFragmentManager.beginTransaction();
+
+        fragment = ScoresFragment.newInstance(day);
+        final Fragment.SavedState savedState = mSavedStates.get(day);
+        if (savedState != null)
+            fragment.setInitialSavedState(savedState);
+        fragment.setMenuVisibility(false);
+        fragment.setUserVisibleHint(false);
+
+        mFragments.put(day, fragment);
+        mCurTransaction.add(container.getId(), fragment);
+        return fragment;
+    }
+
+    @Override
+    public void destroyItem(ViewGroup container, int position, Object object) {
+        final ScoresFragment fragment = (ScoresFragment) object;
+        final int day = fragment.getDay();
+
+        if (mCurTransaction == null)
+            mCurTransaction = mFragmentManager.beginTransaction();
+
+        if (isInWindow(day))
+            mSavedStates.put(day, mFragmentManager.saveFragmentInstanceState(fragment));
+        mFragments.remove(day);
+        mCurTransaction.remove(fragment);
+    }
+
+    @Override
+    public void setPrimaryItem(ViewGroup container, int position, Object object) {
+        final Fragment fragment = (Fragment) object;
+        if (fragment != mCurrentPrimaryItem) {
+            if (mCurrentPrimaryItem != null) {
+                mCurrentPrimaryItem.setMenuVisibility(false);
+                mCurrentPrimaryItem.setUserVisibleHint(false);
+            }
+            if (fragment != null) {
+                fragment.setMenuVisibility(true);
+                fragment.setUserVisibleHint(true);
+            }
+            mCurrentPrimaryItem = fragment;
+        }
+    }
+
+    @Override
+    public void finishUpdate(ViewGroup container) {
+        if (mCurTransaction != null) {
+            mCurTransaction.commitAllowingStateLoss();
+            mCurTransaction = null;
+            mFragmentManager.executePendingTransactions();
+        }
+    }
+
+    @Override
+    public boolean isViewFromObject(View view, Object object) {
+        return ((Fragment) object).getView() == view;
+    }
+
+    @Override
+    public Parcelable saveState() {
+        final Bundle state = new Bundle();
+        final int[] days = new int[mSavedStates.size()];
+        final Fragment.SavedState[] savedStates = new Fragment.SavedState[mSavedStates.size()];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = mSavedStates.keyAt(i);
+            savedStates[i] = mSavedStates.valueAt(i);
+        }
+        state.putIntArray(STATE_DAYS, days);
+        state.putParcelableArray(STATE_SAVED, savedStates);
+
+        for (int i = 0; i < mFragments.size(); i++) {
+            final Fragment fragment = mFragments.valueAt(i);
+            if (fragment.isAdded())
+                mFragmentManager.putFragment(state, STATE_FRAGMENT + mFragments.keyAt(i), fragment);
+        }
+        return state;
+    }
+
+    @Override
+    public void restoreState(Parcelable state, ClassLoader loader) {
+        if (state == null)
+            return;
+
+        final Bundle bundle = (Bundle) state;
+        bundle.setClassLoader(loader);
+        mSavedStates.clear();
+        mFragments.clear();
+
+        final int[] days = bundle.getIntArray(STATE_DAYS);
+        final Parcelable[] savedStates = bundle.getParcelableArray(STATE_SAVED);
+        if (days != null && savedStates != null) {
+            for (int i = 0; i < days.length; i++) {
+                mSavedStates.put(days[i], (Fragment.SavedState) savedStates[i]);
+            }
+        }
+
+        for (String key : bundle.keySet()) {
+            if (!key.startsWith(STATE_FRAGMENT))
+                continue;
+            final ScoresFragment fragment = (ScoresFragment) mFragmentManager.getFragment(bundle, key);
+            if (fragment != null) {
+                fragment.setMenuVisibility(false);
+                mFragments.put(Integer.parseInt(key.substring(STATE_FRAGMENT.length())), fragment);
+            } else {
+                Log.w(TAG, "Bad fragment at key " + key);
+            }
+        }
+    }
+
+    /**
+     * @return "Today", "Tomorrow" or "Yesterday", the weekday name for the days around, or an
+     * abbreviated date otherwise
+     */
+    public String getDayName(int day) {
+        final int today = mConverter.toLocalEpochDay(System.currentTimeMillis());
+        final long dayMillis = mConverter.getDayStartMillis(day);
+
+        if (day == today) {
+            return mContext.getString(R.string.today);
+        } else if (day == today + 1) {
+            return mContext.getString(R.string.tomorrow);
+        } else if (day == today - 1) {
+            return mContext.getString(R.string.yesterday);
+        } else if (Math.abs(day - today) <= WEEKDAY_NAME_DAYS) {
+            return DAY_FORMAT.format(dayMillis);
         } else {
-            Time time = new Time();
-            time.setToNow();
-            // Otherwise, the format is just the day of the week (e.g "Wednesday".
-            return DAY_FORMAT.format(dateInMillis);
+            return DateUtils.formatDateTime(mContext, dayMillis, DateUtils.FORMAT_SHOW_WEEKDAY
+                    | DateUtils.FORMAT_ABBREV_WEEKDAY | DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_ABBREV_MONTH);
         }
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.adapter;
+
+import android.content.res.Resources;
+import android.database.Cursor;
+import android.util.SparseArray;
+
+import com.ewintory.footballscores.R;
+import com.ewintory.footballscores.util.Utilities;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, pre-formatted content of a score card. Rows are built on the loader thread, so
+ * binding a card only assigns these fields to its views.
+ */
+public final class ScoreRow {
+
+    private final long mMatchId;
+    private final String mLeagueName;
+    private final String mHomeName;
+    private final String mAwayName;
+    private final String mScore;
+    private final String mMatchDay;
+    private final String mHomeCrestUrl;
+    private final String mAwayCrestUrl;
+    private final int mHomeCrestRes;
+    private final int mAwayCrestRes;
+
+    ScoreRow(long matchId, String leagueName, String homeName, String awayName, String score,
+             String matchDay, String homeCrestUrl, String awayCrestUrl, int homeCrestRes, int awayCrestRes) {
+        mMatchId = matchId;
+        mLeagueName = leagueName;
+        mHomeName = homeName;
+        mAwayName = awayName;
+        mScore = score;
+        mMatchDay = matchDay;
+        mHomeCrestUrl = homeCrestUrl;
+        mAwayCrestUrl = awayCrestUrl;
+        mHomeCrestRes = homeCrestRes;
+        mAwayCrestRes = awayCrestRes;
+    }
+
+    public long getMatchId() {
+        return mMatchId;
+    }
+
+    public String getLeagueName() {
+        return mLeagueName;
+    }
+
+    public String getHomeName() {
+        return mHomeName;
+    }
+
+    public String getAwayName() {
+        return mAwayName;
+    }
+
+    public String getScore() {
+        return mScore;
+    }
+
+    public String getMatchDay() {
+        return mMatchDay;
+    }
+
+    public String getHomeCrestUrl() {
+        return mHomeCrestUrl;
+    }
+
+    public String getAwayCrestUrl() {
+        return mAwayCrestUrl;
+    }
+
+    public int getHomeCrestRes() {
+        return mHomeCrestRes;
+    }
+
+    public int getAwayCrestRes() {
+        return mAwayCrestRes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScoreRow)) return false;
+
+        ScoreRow row = (ScoreRow) o;
+        return mMatchId == row.mMatchId
+                && mHomeCrestRes == row.mHomeCrestRes
+                && mAwayCrestRes == row.mAwayCrestRes
+                && equal(mLeagueName, row.mLeagueName)
+                && equal(mHomeName, row.mHomeName)
+                && equal(mAwayName, row.mAwayName)
+                && equal(mScore, row.mScore)
+                && equal(mMatchDay, row.mMatchDay)
+                && equal(mHomeCrestUrl, row.mHomeCrestUrl)
+                && equal(mAwayCrestUrl, row.mAwayCrestUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (mMatchId ^ (mMatchId >>> 32));
+        result = 31 * result + hash(mLeagueName);
+        result = 31 * result + hash(mHomeName);
+        result = 31 * result + hash(mAwayName);
+        result = 31 * result + hash(mScore);
+        result = 31 * result + hash(mMatchDay);
+        result = 31 * result + hash(mHomeCrestUrl);
+        result = 31 * result + hash(mAwayCrestUrl);
+        result = 31 * result + mHomeCrestRes;
+        result = 31 * result + mAwayCrestRes;
+        return result;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static int hash(Object o) {
+        return o != null ? o.hashCode() : 0;
+    }
+
+    /**
+     * Builds rows from {@link ScoresAdapter.ScoresQuery} cursors. League names, match day labels,
+     * team names and crest resources are resolved once and shared by every row that repeats them.
+     * Not thread-safe, meant to be used by one loader thread.
+     */
+    public static final class Factory {
+        private final Resources mResources;
+
+        private final SparseArray<String> mLeagueNames = new SparseArray<>();
+        private final SparseArray<String> mMatchDays = new SparseArray<>();
+        private final Map<String, String> mTeamNames = new HashMap<>();
+        private final Map<String, Integer> mCrestResources = new HashMap<>();
+        private Locale mLocale;
+
+        public Factory(Resources resources) {
+            mResources = resources;
+        }
+
+        /**
+         * Called before every load, drops labels that were formatted for another locale.
+         */
+        public void onLoadStarted() {
+            final Locale locale = mResources.getConfiguration().locale;
+            if (!locale.equals(mLocale)) {
+                mLeagueNames.clear();
+                mMatchDays.clear();
+                mLocale = locale;
+            }
+        }
+
+        public ScoreRow create(Cursor cursor) {
+            final String homeName = teamName(cursor.getString(ScoresAdapter.ScoresQuery.HOME));
+            final String awayName = teamName(cursor.getString(ScoresAdapter.ScoresQuery.AWAY));
+
+            return new ScoreRow(
+                    cursor.getLong(ScoresAdapter.ScoresQuery.MATCH_ID),
+                    leagueName(cursor.getInt(ScoresAdapter.ScoresQuery.LEAGUE)),
+                    homeName,
+                    awayName,
+                    Utilities.getScores(mResources,
+                            cursor.getInt(ScoresAdapter.ScoresQuery.HOME_GOALS),
+                            cursor.getInt(ScoresAdapter.ScoresQuery.AWAY_GOALS)),
+                    matchDay(cursor.getInt(ScoresAdapter.ScoresQuery.MATCH_DAY)),
+                    cursor.getString(ScoresAdapter.ScoresQuery.HOME_CREST),
+                    cursor.getString(ScoresAdapter.ScoresQuery.AWAY_CREST),
+                    crestResource(homeName),
+                    crestResource(awayName));
+        }
+
+        private String leagueName(int leagueId) {
+            String name = mLeagueNames.get(leagueId);
+            if (name == null) {
+                name = Utilities.getLeague(mResources, leagueId);
+                mLeagueNames.put(leagueId, name);
+            }
+            return name;
+        }
+
+        private String matchDay(int matchDay) {
+            String label = mMatchDays.get(matchDay);
+            if (label == null) {
+                label = mResources.getString(R.string.match_day, matchDay);
+                mMatchDays.put(matchDay, label);
+            }
+            return label;
+        }
+
+        private String teamName(String name) {
+            if (name == null)
+                return null;
+            final String shared = mTeamNames.get(name);
+            if (shared != null)
+                return shared;
+            mTeamNames.put(name, name);
+            return name;
+        }
+
+        private int crestResource(String teamName) {
+            Integer res = mCrestResources.get(teamName);
+            if (res == null) {
+                res = Utilities.getTeamCrestByTeamName(teamName);
+                mCrestResources.put(teamName, res);
+            }
+            return res;
+        }
+    }
+}
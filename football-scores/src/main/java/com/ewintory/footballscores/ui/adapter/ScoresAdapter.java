@@ -16,10 +16,9 @@
 
 package com.ewintory.footballscores.ui.adapter;
 
-import android.content.res.Resources;
-import android.database.Cursor;
-import android.graphics.drawable.PictureDrawable;
+import android.graphics.Bitmap;
 import android.net.Uri;
+import android.support.annotation.DrawableRes;
 import android.support.v4.app.Fragment;
 import android.support.v4.graphics.drawable.DrawableCompat;
 import android.support.v7.widget.RecyclerView;
@@ -31,17 +30,21 @@ import android.widget.TextView;
 
 import com.bumptech.glide.GenericRequestBuilder;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.model.StreamEncoder;
+import com.bumptech.glide.load.resource.bitmap.BitmapEncoder;
+import com.bumptech.glide.load.resource.bitmap.StreamBitmapDecoder;
 import com.bumptech.glide.load.resource.file.FileToStreamDecoder;
-import com.caverock.androidsvg.SVG;
+import com.bumptech.glide.load.resource.transcode.UnitTranscoder;
 import com.ewintory.footballscores.R;
 import com.ewintory.footballscores.provider.ScoresContract;
-import com.ewintory.footballscores.util.Utilities;
-import com.ewintory.footballscores.util.svg.SvgDecoder;
-import com.ewintory.footballscores.util.svg.SvgDrawableTranscoder;
-import com.ewintory.footballscores.util.svg.SvgSoftwareLayerSetter;
+import com.ewintory.footballscores.ui.loader.ScoresLoader;
+import com.ewintory.footballscores.util.svg.SvgBitmapDecoder;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 
 import butterknife.Bind;
 import butterknife.BindColor;
@@ -69,40 +72,72 @@ public final class ScoresAdapter extends RecyclerView.Adapter<ScoresAdapter.View
                 ScoresContract.ScoreEntry.COLUMN_AWAY,
                 ScoresContract.ScoreEntry.COLUMN_HOME_GOALS,
                 ScoresContract.ScoreEntry.COLUMN_AWAY_GOALS,
-                ScoresContract.ScoreEntry.COLUMN_MATCH_DAY
+                ScoresContract.ScoreEntry.COLUMN_MATCH_DAY,
+                ScoresContract.ScoreEntry.COLUMN_HOME_CREST,
+                ScoresContract.ScoreEntry.COLUMN_AWAY_CREST,
+                ScoresContract.ScoreEntry.COLUMN_MATCH_ID
         };
 
+        String SORT_ORDER = ScoresContract.ScoreEntry.COLUMN_DATE + " ASC, "
+                + ScoresContract.ScoreEntry.COLUMN_MATCH_ID + " ASC";
+
         int LEAGUE = 0;
         int HOME = 1;
         int AWAY = 2;
         int HOME_GOALS = 3;
         int AWAY_GOALS = 4;
         int MATCH_DAY = 5;
+        int HOME_CREST = 6;
+        int AWAY_CREST = 7;
+        int MATCH_ID = 8;
     }
 
     private final Fragment mFragment;
     private final LayoutInflater mInflater;
-    private final GenericRequestBuilder<Uri, InputStream, SVG, PictureDrawable> requestBuilder;
+    private final GenericRequestBuilder<Uri, InputStream, Bitmap, Bitmap> requestBuilder;
 
-    private Cursor mCursor;
+    private List<ScoreRow> mRows = Collections.emptyList();
+    private ScoresDiff.Snapshot mSnapshot;
     private OnScoreItemClickListener mListener = OnScoreItemClickListener.DUMMY;
 
+    private final ScoresDiff.Callback mDiffCallback = new ScoresDiff.Callback() {
+        @Override public void onInserted(int position) {
+            notifyItemInserted(position);
+        }
+
+        @Override public void onRemoved(int position) {
+            notifyItemRemoved(position);
+        }
+
+        @Override public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override public void onChanged(int position) {
+            notifyItemChanged(position);
+        }
+    };
+
     public ScoresAdapter(Fragment fragment) {
         mInflater = LayoutInflater.from(fragment.getActivity());
         mFragment = fragment;
+        setHasStableIds(true);
 
+        // Crests are rasterized once at the view size, later binds decode the cached bitmap
+        final BitmapPool bitmapPool = Glide.get(fragment.getActivity()).getBitmapPool();
         requestBuilder = Glide.with(fragment)
                 .using(Glide.buildStreamModelLoader(Uri.class, fragment.getActivity()), InputStream.class)
                 .from(Uri.class)
-                .as(SVG.class)
-                .transcode(new SvgDrawableTranscoder(), PictureDrawable.class)
+                .as(Bitmap.class)
+                .transcode(new UnitTranscoder<Bitmap>(), Bitmap.class)
                 .sourceEncoder(new StreamEncoder())
-                .cacheDecoder(new FileToStreamDecoder<>(new SvgDecoder()))
-                .decoder(new SvgDecoder())
+                .decoder(new SvgBitmapDecoder(bitmapPool))
+                .encoder(new BitmapEncoder(Bitmap.CompressFormat.PNG, 100))
+                .cacheDecoder(new FileToStreamDecoder<>(new StreamBitmapDecoder(bitmapPool)))
+                .diskCacheStrategy(DiskCacheStrategy.RESULT)
                 .placeholder(R.color.primary_light)
                 .error(R.drawable.no_icon)
-                .animate(android.R.anim.fade_in)
-                .listener(new SvgSoftwareLayerSetter<Uri>());
+                .animate(android.R.anim.fade_in);
     }
 
     public ScoresAdapter setListener(OnScoreItemClickListener listener) {
@@ -110,18 +145,31 @@ public final class ScoresAdapter extends RecyclerView.Adapter<ScoresAdapter.View
         return this;
     }
 
-    public void swapCursor(Cursor newCursor) {
-        mCursor = newCursor;
-        notifyDataSetChanged();
-    }
+    /**
+     * Cursors of {@link ScoresLoader} carry the diff from the snapshot they replace: when it is the
+     * snapshot shown now only the changed items are notified, otherwise the whole list is.
+     */
+    public void swapCursor(ScoresLoader.DiffCursor newCursor) {
+        final ScoresDiff diff = newCursor != null ? newCursor.getDiff() : null;
 
-    public Cursor getCursor() {
-        return mCursor;
+        mRows = newCursor != null ? newCursor.getRows() : Collections.<ScoreRow>emptyList();
+        if (diff != null && mSnapshot != null && diff.getOldSnapshot() == mSnapshot) {
+            mSnapshot = diff.getNewSnapshot();
+            diff.dispatch(mDiffCallback);
+        } else {
+            mSnapshot = newCursor != null ? newCursor.getSnapshot() : null;
+            notifyDataSetChanged();
+        }
     }
 
     @Override
     public int getItemCount() {
-        return mCursor != null ? mCursor.getCount() : 0;
+        return mRows.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mRows.get(position).getMatchId();
     }
 
     @Override
@@ -129,39 +177,59 @@ public final class ScoresAdapter extends RecyclerView.Adapter<ScoresAdapter.View
         return new ViewHolder(mInflater.inflate(R.layout.item_score, parent, false));
     }
 
+    /**
+     * Rows come formatted from {@link ScoresLoader}, binding only assigns them.
+     */
     @Override
     public void onBindViewHolder(final ViewHolder holder, int position) {
-        final Resources res = mFragment.getResources();
-        mCursor.moveToPosition(position);
-
-        holder.mLeagueName.setText(Utilities.getLeague(res, mCursor.getInt(ScoresQuery.LEAGUE)));
-        holder.mHomeName.setText(mCursor.getString(ScoresQuery.HOME));
-        holder.mAwayName.setText(mCursor.getString(ScoresQuery.AWAY));
-        holder.mMatchDay.setText(res.getString(R.string.match_day,
-                mCursor.getInt(ScoresQuery.MATCH_DAY)));
-        holder.mScore.setText(Utilities.getScores(res,
-                mCursor.getInt(ScoresQuery.HOME_GOALS),
-                mCursor.getInt(ScoresQuery.AWAY_GOALS)));
-
-        holder.mHomeCrest.setImageResource(Utilities.getTeamCrestByTeamName(
-                mCursor.getString(ScoresQuery.HOME)));
-        holder.mAwayCrest.setImageResource(Utilities.getTeamCrestByTeamName(
-                mCursor.getString(ScoresQuery.AWAY)));
-
-//        Uri uri = Uri.parse(mCursor.getString(ScoresQuery.HOME_CREST));
-//        requestBuilder
-//                .diskCacheStrategy(DiskCacheStrategy.SOURCE)
-//                .load(uri)
-//                .into(holder.mHomeCrest);
-//
-//        uri = Uri.parse(mCursor.getString(ScoresQuery.AWAY_CREST));
-//        requestBuilder
-//                .diskCacheStrategy(DiskCacheStrategy.SOURCE)
-//                .load(uri)
-//                .into(holder.mAwayCrest);
+        final ScoreRow row = mRows.get(position);
+
+        holder.mListener = mListener;
+
+        holder.mLeagueName.setText(row.getLeagueName());
+        holder.mHomeName.setText(row.getHomeName());
+        holder.mAwayName.setText(row.getAwayName());
+        holder.mMatchDay.setText(row.getMatchDay());
+        holder.mScore.setText(row.getScore());
+
+        bindCrest(holder.mHomeCrest, row.getHomeCrestUrl(), row.getHomeCrestRes());
+        bindCrest(holder.mAwayCrest, row.getAwayCrestUrl(), row.getAwayCrestRes());
+    }
+
+    /**
+     * Loads the crest from its url, teams without a stored crest fall back to the bundled drawables.
+     * A few crests are raster images, those go through Glide's default pipeline.
+     */
+    private void bindCrest(ImageView view, String crestUrl, @DrawableRes int fallbackRes) {
+        if (crestUrl != null && crestUrl.endsWith(".svg")) {
+            requestBuilder.load(Uri.parse(crestUrl)).into(view);
+        } else if (crestUrl != null) {
+            Glide.with(mFragment)
+                    .load(crestUrl)
+                    .placeholder(R.color.primary_light)
+                    .error(R.drawable.no_icon)
+                    .into(view);
+        } else {
+            Glide.clear(view);
+            view.setImageResource(fallbackRes);
+        }
+    }
+
+    /**
+     * Holders go back to a pool shared by the day pages, see {@link ScoresViewPool}, so they must
+     * not keep this page's requests or listener.
+     */
+    @Override
+    public void onViewRecycled(ViewHolder holder) {
+        Glide.clear(holder.mHomeCrest);
+        Glide.clear(holder.mAwayCrest);
+        holder.mListener = OnScoreItemClickListener.DUMMY;
     }
 
-    public class ViewHolder extends RecyclerView.ViewHolder {
+    /**
+     * Static, holders are shared by the adapters of all day pages.
+     */
+    public static final class ViewHolder extends RecyclerView.ViewHolder {
         @Bind(R.id.score_item_league) TextView mLeagueName;
         @Bind(R.id.score_item_home_name) TextView mHomeName;
         @Bind(R.id.score_item_away_name) TextView mAwayName;
@@ -172,6 +240,8 @@ public final class ScoresAdapter extends RecyclerView.Adapter<ScoresAdapter.View
 
         @BindColor(R.color.secondary_text) int mTintColor;
 
+        private OnScoreItemClickListener mListener = OnScoreItemClickListener.DUMMY;
+
         public ViewHolder(View view) {
             super(view);
             ButterKnife.bind(this, view);
@@ -184,7 +254,7 @@ public final class ScoresAdapter extends RecyclerView.Adapter<ScoresAdapter.View
         }
 
         @OnClick(R.id.share_button) void onShare() {
-            mListener.onShareScoreItemClicked(mFragment.getString(R.string.score_share_template,
+            mListener.onShareScoreItemClicked(itemView.getContext().getString(R.string.score_share_template,
                     mHomeName.getText(), mScore.getText(), mAwayName.getText()));
         }
     }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.adapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two snapshots of a scores list, expressed as the adapter notifications that
+ * turn the old list into the new one. Items are matched by id, an item whose content hash differs
+ * is reported as changed at its new position.
+ * <p/>
+ * Operations are meant to be dispatched in order, every position refers to the list as left by
+ * the previous operation. Moves are found by a quadratic scan, which is fine for the few dozen
+ * matches of a day.
+ */
+public final class ScoresDiff {
+
+    public interface Callback {
+        void onInserted(int position);
+
+        void onRemoved(int position);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position);
+    }
+
+    /**
+     * Ids and content hashes of the list items, in list order.
+     */
+    public static final class Snapshot {
+        private final long[] mIds;
+        private final int[] mHashes;
+
+        public Snapshot(long[] ids, int[] hashes) {
+            if (ids.length != hashes.length)
+                throw new IllegalArgumentException("ids and hashes differ in length");
+            mIds = ids;
+            mHashes = hashes;
+        }
+
+        public int size() {
+            return mIds.length;
+        }
+
+        public long getId(int position) {
+            return mIds[position];
+        }
+
+        public int getHash(int position) {
+            return mHashes[position];
+        }
+    }
+
+    private static final int OP_INSERT = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_MOVE = 2;
+    private static final int OP_CHANGE = 3;
+
+    private final Snapshot mOld;
+    private final Snapshot mNew;
+    // Triples of operation, first and second position
+    private final int[] mOperations;
+
+    private ScoresDiff(Snapshot oldSnapshot, Snapshot newSnapshot, int[] operations) {
+        mOld = oldSnapshot;
+        mNew = newSnapshot;
+        mOperations = operations;
+    }
+
+    public static ScoresDiff calculate(Snapshot oldSnapshot, Snapshot newSnapshot) {
+        final Map<Long, Integer> newPositions = new HashMap<>(newSnapshot.size());
+        for (int i = 0; i < newSnapshot.size(); i++) {
+            newPositions.put(newSnapshot.getId(i), i);
+        }
+
+        final List<Integer> ops = new ArrayList<>();
+        final List<Long> current = new ArrayList<>(oldSnapshot.size());
+        final Map<Long, Integer> oldHashes = new HashMap<>(oldSnapshot.size());
+
+        // Removals from the end, so earlier positions stay valid
+        for (int i = oldSnapshot.size() - 1; i >= 0; i--) {
+            final long id = oldSnapshot.getId(i);
+            if (!newPositions.containsKey(id)) {
+                addOperation(ops, OP_REMOVE, i, i);
+            } else {
+                current.add(0, id);
+                oldHashes.put(id, oldSnapshot.getHash(i));
+            }
+        }
+
+        for (int i = 0; i < newSnapshot.size(); i++) {
+            final long id = newSnapshot.getId(i);
+            if (i < current.size() && current.get(i) == id)
+                continue;
+
+            final int from = current.indexOf(id);
+            if (from > i) {
+                current.remove(from);
+                current.add(i, id);
+                addOperation(ops, OP_MOVE, from, i);
+            } else {
+                current.add(i, id);
+                addOperation(ops, OP_INSERT, i, i);
+            }
+        }
+
+        for (int i = 0; i < newSnapshot.size(); i++) {
+            final Integer oldHash = oldHashes.get(newSnapshot.getId(i));
+            if (oldHash != null && oldHash != newSnapshot.getHash(i)) {
+                addOperation(ops, OP_CHANGE, i, i);
+            }
+        }
+
+        final int[] operations = new int[ops.size()];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = ops.get(i);
+        }
+        return new ScoresDiff(oldSnapshot, newSnapshot, operations);
+    }
+
+    public Snapshot getOldSnapshot() {
+        return mOld;
+    }
+
+    public Snapshot getNewSnapshot() {
+        return mNew;
+    }
+
+    public boolean isEmpty() {
+        return mOperations.length == 0;
+    }
+
+    public void dispatch(Callback callback) {
+        for (int i = 0; i < mOperations.length; i += 3) {
+            final int first = mOperations[i + 1];
+            final int second = mOperations[i + 2];
+            switch (mOperations[i]) {
+                case OP_INSERT:
+                    callback.onInserted(first);
+                    break;
+                case OP_REMOVE:
+                    callback.onRemoved(first);
+                    break;
+                case OP_MOVE:
+                    callback.onMoved(first, second);
+                    break;
+                case OP_CHANGE:
+                    callback.onChanged(first);
+                    break;
+            }
+        }
+    }
+
+    private static void addOperation(List<Integer> ops, int operation, int first, int second) {
+        ops.add(operation);
+        ops.add(first);
+        ops.add(second);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.adapter;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * View pool shared by the day pages, so a page reuses the cards of the pages swiped away
+ * instead of inflating its own. {@link #prefill(RecyclerView, int)} creates cards while the main
+ * thread is idle, ahead of the first page that needs them.
+ */
+public final class ScoresViewPool extends RecyclerView.RecycledViewPool {
+
+    // ScoresAdapter has a single view type
+    private static final int VIEW_TYPE = 0;
+
+    // Cards of the current page and its neighbours on the largest screens
+    private static final int MAX_HOLDERS = 24;
+
+    // Kept apart from the heap size, RecycledViewPool does not expose it
+    private int mCount;
+
+    public ScoresViewPool() {
+        setMaxRecycledViews(VIEW_TYPE, MAX_HOLDERS);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        final RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        if (holder != null)
+            mCount--;
+        return holder;
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        // A full pool drops the holder
+        if (mCount < MAX_HOLDERS)
+            mCount++;
+        super.putRecycledView(scrap);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        mCount = 0;
+    }
+
+    /**
+     * Creates holders with the adapter of {@code recyclerView}, one per idle pass of the main
+     * thread, until the pool holds {@code count} of them. Stops once the adapter is removed.
+     */
+    public void prefill(final RecyclerView recyclerView, int count) {
+        final int target = Math.min(count, MAX_HOLDERS);
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override public boolean queueIdle() {
+                final RecyclerView.Adapter adapter = recyclerView.getAdapter();
+                if (adapter == null || mCount >= target)
+                    return false;
+
+                putRecycledView(adapter.createViewHolder(recyclerView, VIEW_TYPE));
+                return mCount < target;
+            }
+        });
+    }
+}
@@ -7,29 +7,43 @@ import android.support.design.widget.TabLayout;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.ViewPager;
 import android.util.Log;
+import android.util.SparseBooleanArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 
 import com.ewintory.footballscores.R;
+import com.ewintory.footballscores.service.FetchService;
 import com.ewintory.footballscores.ui.adapter.PagerAdapter;
+import com.ewintory.footballscores.ui.adapter.ScoresViewPool;
+import com.ewintory.footballscores.util.FixtureTimeConverter;
 import com.ewintory.footballscores.util.OnTabSelectedListener;
 
+import java.util.TimeZone;
+
 import butterknife.Bind;
 
 public final class PagerFragment extends BaseFragment
         implements AppBarLayout.OnOffsetChangedListener {
-    private static final String STATE_CURRENT_PAGE = "state_current_page";
+    private static final String STATE_CURRENT_DAY = "state_current_day";
+    private static final String STATE_ANCHOR_DAY = "state_anchor_day";
+
+    // Neighbouring days on each side are loaded along with the current one
+    private static final int OFFSCREEN_PAGES = 1;
 
     @Bind(R.id.pager) ViewPager mViewPager;
     @Bind(R.id.app_bar) AppBarLayout mAppBarLayout;
     @Bind(R.id.tab_layout) TabLayout mTabLayout;
 
     private PagerAdapter mPagerAdapter;
-    private int mCurrentPage = PagerAdapter.POSITION_TODAY;
+    private final ScoresViewPool mScoresViewPool = new ScoresViewPool();
+    private int mCurrentDay;
     private int mAppBarOffset = 0;
 
+    // Days fetched on demand while the pager is shown, limited to the pager window
+    private final SparseBooleanArray mRequestedDays = new SparseBooleanArray();
+
     @Override
     public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         return inflater.inflate(R.layout.fragment_pager, container, false);
@@ -39,10 +53,15 @@ public final class PagerFragment extends BaseFragment
     public void onViewCreated(View view, Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        if (savedInstanceState != null && savedInstanceState.containsKey(STATE_CURRENT_PAGE))
-            mCurrentPage = savedInstanceState.getInt(STATE_CURRENT_PAGE);
+        final int today = new FixtureTimeConverter(TimeZone.getDefault()).toLocalEpochDay(System.currentTimeMillis());
+        int anchorDay = today;
+        mCurrentDay = today;
+        if (savedInstanceState != null && savedInstanceState.containsKey(STATE_CURRENT_DAY)) {
+            mCurrentDay = savedInstanceState.getInt(STATE_CURRENT_DAY);
+            anchorDay = savedInstanceState.getInt(STATE_ANCHOR_DAY, mCurrentDay);
+        }
 
-        mPagerAdapter = new PagerAdapter(getActivity(), getChildFragmentManager());
+        mPagerAdapter = new PagerAdapter(getActivity(), getChildFragmentManager(), anchorDay);
 
         mTabLayout.setTabsFromPagerAdapter(mPagerAdapter);
         mTabLayout.setOnTabSelectedListener(new OnTabSelectedListener() {
@@ -52,9 +71,35 @@ public final class PagerFragment extends BaseFragment
         });
 
         mViewPager.addOnPageChangeListener(new TabLayout.TabLayoutOnPageChangeListener(mTabLayout));
-        mViewPager.setOffscreenPageLimit(PagerAdapter.PAGE_SIZE);
+        mViewPager.addOnPageChangeListener(new ViewPager.SimpleOnPageChangeListener() {
+            @Override public void onPageSelected(int position) {
+                mCurrentDay = mPagerAdapter.getDay(position);
+                requestDays(mCurrentDay);
+            }
+
+            @Override public void onPageScrollStateChanged(int state) {
+                if (state == ViewPager.SCROLL_STATE_IDLE)
+                    reanchor();
+            }
+        });
+        mViewPager.setOffscreenPageLimit(OFFSCREEN_PAGES);
         mViewPager.setAdapter(mPagerAdapter);
-        mViewPager.setCurrentItem(mCurrentPage);
+        mViewPager.setCurrentItem(mPagerAdapter.getPosition(mCurrentDay));
+        requestDays(mCurrentDay);
+    }
+
+    /**
+     * @return view pool shared by the pages' score lists
+     */
+    public ScoresViewPool getScoresViewPool() {
+        return mScoresViewPool;
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_CURRENT_DAY, mCurrentDay);
+        outState.putInt(STATE_ANCHOR_DAY, mPagerAdapter.getAnchorDay());
     }
 
     @Override
@@ -80,6 +125,41 @@ public final class PagerFragment extends BaseFragment
         mAppBarOffset = offset;
     }
 
+    /**
+     * Moves the pager window once the user settled close to its edge, the current page stays.
+     */
+    private void reanchor() {
+        if (!mPagerAdapter.reanchor(mViewPager.getCurrentItem()))
+            return;
+
+        for (int i = mRequestedDays.size() - 1; i >= 0; i--) {
+            if (!mPagerAdapter.isInWindow(mRequestedDays.keyAt(i)))
+                mRequestedDays.removeAt(i);
+        }
+        mTabLayout.setTabsFromPagerAdapter(mPagerAdapter);
+        final TabLayout.Tab tab = mTabLayout.getTabAt(mViewPager.getCurrentItem());
+        if (tab != null)
+            tab.select();
+    }
+
+    /**
+     * Fetches {@code day} and the days around it unless the scheduled refreshes keep them or
+     * they were requested already, so the neighbouring pages are ready before they are shown.
+     */
+    private void requestDays(int day) {
+        final int today = new FixtureTimeConverter(TimeZone.getDefault()).toLocalEpochDay(System.currentTimeMillis());
+        int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+        for (int d = day - OFFSCREEN_PAGES; d <= day + OFFSCREEN_PAGES; d++) {
+            if (FetchService.isSyncedDay(d, today) || mRequestedDays.get(d))
+                continue;
+            mRequestedDays.put(d, true);
+            first = Math.min(first, d);
+            last = Math.max(last, d);
+        }
+        if (first <= last)
+            FetchService.fetchDays(getActivity(), first, last);
+    }
+
     //TODO: Decide what to do with this. With ScoreFragment#canSwipeRefreshChildScrollUp there is no need in this method
     public void dispatchTouchEvent(MotionEvent ev) {
         final int action = MotionEventCompat.getActionMasked(ev);
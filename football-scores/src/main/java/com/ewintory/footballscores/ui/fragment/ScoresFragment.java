@@ -3,13 +3,13 @@ package com.ewintory.footballscores.ui.fragment;
 import android.content.Intent;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.support.v4.app.Fragment;
 import android.support.v4.app.LoaderManager;
-import android.support.v4.content.CursorLoader;
 import android.support.v4.content.Loader;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.SwipeRefreshLayout;
+import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -22,28 +22,37 @@ import com.ewintory.footballscores.R;
 import com.ewintory.footballscores.provider.ScoresContract;
 import com.ewintory.footballscores.service.FetchService;
 import com.ewintory.footballscores.ui.adapter.ScoresAdapter;
+import com.ewintory.footballscores.ui.adapter.ScoresViewPool;
+import com.ewintory.footballscores.ui.loader.ScoresLoader;
 import com.ewintory.footballscores.ui.widget.MultiSwipeRefreshLayout;
+import com.ewintory.footballscores.util.FixtureTimeConverter;
 
 import butterknife.Bind;
 
 public class ScoresFragment extends BaseFragment
         implements LoaderManager.LoaderCallbacks<Cursor>, SwipeRefreshLayout.OnRefreshListener, ScoresAdapter.OnScoreItemClickListener, MultiSwipeRefreshLayout.CanChildScrollUpCallback {
 
-    public static final String ARG_DATE = "ARG_DATE";
+    public static final String ARG_DAY = "ARG_DAY";
 
     private static final int LOADER_SCORES = 0;
 
+    // Cards created ahead while the main thread is idle, about a page of them
+    private static final int PREFILL_HOLDERS = 8;
+
     @Bind(R.id.scores_recycler_view) RecyclerView mRecyclerView;
     @Bind(R.id.swipe_refresh_layout) MultiSwipeRefreshLayout mSwipeRefreshLayout;
     @Bind(R.id.scores_empty_view) View mEmptyView;
 
     private String mLogTag = ScoresFragment.class.getSimpleName();
     private ScoresAdapter mScoresAdapter;
-    private String mScoresDate;
+    private int mScoresDay;
 
-    public static ScoresFragment newInstance(String date) {
+    /**
+     * @param day local day since epoch, see {@link FixtureTimeConverter#toLocalEpochDay(long)}
+     */
+    public static ScoresFragment newInstance(int day) {
         Bundle args = new Bundle();
-        args.putString(ARG_DATE, date);
+        args.putInt(ARG_DAY, day);
 
         ScoresFragment fragment = new ScoresFragment();
         fragment.setArguments(args);
@@ -52,13 +61,20 @@ public class ScoresFragment extends BaseFragment
 
     public ScoresFragment() { }
 
+    /**
+     * @return local day since epoch of the shown scores
+     */
+    public int getDay() {
+        return getArguments().getInt(ARG_DAY);
+    }
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setHasOptionsMenu(true);
 
-        mScoresDate = getArguments().getString(ARG_DATE);
-        mLogTag = mLogTag.concat("#" + mScoresDate);
+        mScoresDay = getArguments().getInt(ARG_DAY);
+        mLogTag = mLogTag.concat("#" + FixtureTimeConverter.formatDate(mScoresDay));
     }
 
     @Override
@@ -73,14 +89,29 @@ public class ScoresFragment extends BaseFragment
         mSwipeRefreshLayout.setColorSchemeColors(getResources().getIntArray(R.array.swipe_progress_colors));
         mSwipeRefreshLayout.setOnRefreshListener(this);
         mSwipeRefreshLayout.setCanChildScrollUpCallback(this);
-        postRefreshing(true);
 
         mScoresAdapter = new ScoresAdapter(this);
         mScoresAdapter.setListener(this);
 
+        // Cards share one height, the list never resizes the page
+        mRecyclerView.setHasFixedSize(true);
+        mRecyclerView.setLayoutManager(new GridLayoutManager(getActivity(),
+                getResources().getInteger(R.integer.score_columns)));
+        final ScoresViewPool viewPool = getViewPool();
+        if (viewPool != null)
+            mRecyclerView.setRecycledViewPool(viewPool);
         mRecyclerView.setAdapter(mScoresAdapter);
-        mRecyclerView.setLayoutManager(new StaggeredGridLayoutManager(
-                getResources().getInteger(R.integer.score_columns), StaggeredGridLayoutManager.VERTICAL));
+        // A changed score is rebound in place, not cross-faded with a second card
+        mRecyclerView.getItemAnimator().setSupportsChangeAnimations(false);
+        if (viewPool != null)
+            viewPool.prefill(mRecyclerView, PREFILL_HOLDERS);
+    }
+
+    @Override
+    public void onDestroyView() {
+        // Hands the cards over to the shared pool
+        mRecyclerView.setAdapter(null);
+        super.onDestroyView();
     }
 
     @Override
@@ -112,12 +143,7 @@ public class ScoresFragment extends BaseFragment
 
     @Override
     public Loader<Cursor> onCreateLoader(int i, Bundle bundle) {
-        return new CursorLoader(getActivity(),
-                ScoresContract.ScoreEntry.buildScoreWithDate(),
-                ScoresAdapter.ScoresQuery.PROJECTION,
-                null,
-                new String[]{mScoresDate},
-                null);
+        return new ScoresLoader(getActivity(), ScoresContract.ScoreEntry.buildDayUri(mScoresDay));
     }
 
     @Override
@@ -125,7 +151,7 @@ public class ScoresFragment extends BaseFragment
         final int size = cursor.getCount();
         Log.v(mLogTag, String.format("Scores loaded, %d items", size));
 
-        mScoresAdapter.swapCursor(cursor);
+        mScoresAdapter.swapCursor((ScoresLoader.DiffCursor) cursor);
         showEmptyView(size == 0);
         postRefreshing(false);
     }
@@ -165,6 +191,11 @@ public class ScoresFragment extends BaseFragment
         mSwipeRefreshLayout.setEnabled(enabled);
     }
 
+    private ScoresViewPool getViewPool() {
+        final Fragment parent = getParentFragment();
+        return parent instanceof PagerFragment ? ((PagerFragment) parent).getScoresViewPool() : null;
+    }
+
     private void showEmptyView(boolean show) {
         if (mEmptyView != null) mEmptyView.animate().alpha(show ? 1 : 0).setDuration(200).start();
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.loader;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.net.Uri;
+import android.support.v4.content.CursorLoader;
+
+import com.ewintory.footballscores.ui.adapter.ScoreRow;
+import com.ewintory.footballscores.ui.adapter.ScoresAdapter;
+import com.ewintory.footballscores.ui.adapter.ScoresDiff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link CursorLoader} of {@link ScoresAdapter.ScoresQuery} rows that does the adapter's work on
+ * the loader thread: rows are turned into {@link ScoreRow}s, snapshotted and diffed against the
+ * last delivered snapshot, so the adapter only assigns fields and dispatches notifications.
+ */
+public final class ScoresLoader extends CursorLoader {
+
+    /**
+     * Loaded cursor with its rows, their snapshot and the diff from the previously delivered snapshot.
+     */
+    public static final class DiffCursor extends CursorWrapper {
+        private final List<ScoreRow> mRows;
+        private final ScoresDiff.Snapshot mSnapshot;
+        private final ScoresDiff mDiff;
+
+        DiffCursor(Cursor cursor, List<ScoreRow> rows, ScoresDiff.Snapshot snapshot, ScoresDiff diff) {
+            super(cursor);
+            mRows = rows;
+            mSnapshot = snapshot;
+            mDiff = diff;
+        }
+
+        public List<ScoreRow> getRows() {
+            return mRows;
+        }
+
+        public ScoresDiff.Snapshot getSnapshot() {
+            return mSnapshot;
+        }
+
+        /**
+         * @return diff from the snapshot delivered before, {@code null} for the first load
+         */
+        public ScoresDiff getDiff() {
+            return mDiff;
+        }
+    }
+
+    // Used by the loader thread only
+    private final ScoreRow.Factory mRowFactory;
+
+    // Written on the main thread on delivery, read by the next load
+    private volatile ScoresDiff.Snapshot mDeliveredSnapshot;
+
+    public ScoresLoader(Context context, Uri uri) {
+        super(context, uri, ScoresAdapter.ScoresQuery.PROJECTION, null, null,
+                ScoresAdapter.ScoresQuery.SORT_ORDER);
+        mRowFactory = new ScoreRow.Factory(getContext().getResources());
+    }
+
+    @Override
+    public Cursor loadInBackground() {
+        final Cursor cursor = super.loadInBackground();
+        if (cursor == null)
+            return null;
+
+        final List<ScoreRow> rows = createRows(cursor);
+        final ScoresDiff.Snapshot snapshot = takeSnapshot(rows);
+        final ScoresDiff.Snapshot delivered = mDeliveredSnapshot;
+        return new DiffCursor(cursor, rows, snapshot,
+                delivered != null ? ScoresDiff.calculate(delivered, snapshot) : null);
+    }
+
+    @Override
+    public void deliverResult(Cursor cursor) {
+        if (cursor instanceof DiffCursor && !isReset()) {
+            mDeliveredSnapshot = ((DiffCursor) cursor).getSnapshot();
+        }
+        super.deliverResult(cursor);
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        mDeliveredSnapshot = null;
+    }
+
+    private List<ScoreRow> createRows(Cursor cursor) {
+        mRowFactory.onLoadStarted();
+
+        final List<ScoreRow> rows = new ArrayList<>(cursor.getCount());
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            rows.add(mRowFactory.create(cursor));
+        }
+        cursor.moveToPosition(-1);
+        return Collections.unmodifiableList(rows);
+    }
+
+    private static ScoresDiff.Snapshot takeSnapshot(List<ScoreRow> rows) {
+        final long[] ids = new long[rows.size()];
+        final int[] hashes = new int[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i).getMatchId();
+            hashes[i] = rows.get(i).hashCode();
+        }
+        return new ScoresDiff.Snapshot(ids, hashes);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util;
+
+import java.util.TimeZone;
+
+/**
+ * Converts fixture timestamps ("2015-09-12T14:00:00Z") into UTC millis and local epoch days
+ * without allocating: the string is parsed in one pass and zone offsets are cached per quarter
+ * hour, the finest granularity real world offset transitions use.
+ * <p/>
+ * Instances are not thread safe, use one per thread.
+ */
+public final class FixtureTimeConverter {
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    private static final long MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE;
+    private static final long OFFSET_BUCKET_MILLIS = 15 * MILLIS_PER_MINUTE;
+    private static final int OFFSET_CACHE_SIZE = 64; // power of two
+
+    private final TimeZone mZone;
+    private final long[] mBuckets = new long[OFFSET_CACHE_SIZE];
+    private final int[] mOffsets = new int[OFFSET_CACHE_SIZE];
+
+    public FixtureTimeConverter(TimeZone zone) {
+        mZone = zone;
+        for (int i = 0; i < OFFSET_CACHE_SIZE; i++) {
+            mBuckets[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * @return local day since 1970-01-01 of the instant
+     */
+    public int toLocalEpochDay(long utcMillis) {
+        return (int) floorDiv(utcMillis + getOffset(utcMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * @return first instant of the local day, which is not always midnight when a DST
+     * transition happens at midnight
+     */
+    public long getDayStartMillis(int epochDay) {
+        final long localMidnight = epochDay * MILLIS_PER_DAY;
+        long utcMillis = localMidnight - getOffset(localMidnight);
+        utcMillis = localMidnight - getOffset(utcMillis);
+        while (toLocalEpochDay(utcMillis) < epochDay) {
+            utcMillis += OFFSET_BUCKET_MILLIS;
+        }
+        while (toLocalEpochDay(utcMillis - OFFSET_BUCKET_MILLIS) == epochDay) {
+            utcMillis -= OFFSET_BUCKET_MILLIS;
+        }
+        return utcMillis;
+    }
+
+    /**
+     * @return offset of the zone from UTC at the given instant, in millis
+     */
+    public int getOffset(long utcMillis) {
+        final long bucket = floorDiv(utcMillis, OFFSET_BUCKET_MILLIS);
+        final int slot = (int) bucket & (OFFSET_CACHE_SIZE - 1);
+        if (mBuckets[slot] != bucket) {
+            mOffsets[slot] = mZone.getOffset(utcMillis);
+            mBuckets[slot] = bucket;
+        }
+        return mOffsets[slot];
+    }
+
+    /**
+     * Parses "yyyy-MM-ddTHH:mm:ss[.SSS](Z|+HH:mm|-HH:mm)".
+     *
+     * @throws IllegalArgumentException if the timestamp is malformed
+     */
+    public static long parseUtcMillis(CharSequence s) {
+        if (s == null || s.length() < 19 || s.charAt(4) != '-' || s.charAt(7) != '-'
+                || s.charAt(10) != 'T' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            throw new IllegalArgumentException("Malformed timestamp: " + s);
+        }
+
+        final int year = digits(s, 0, 4);
+        final int month = digits(s, 5, 2);
+        final int day = digits(s, 8, 2);
+        final int hour = digits(s, 11, 2);
+        final int minute = digits(s, 14, 2);
+        final int second = digits(s, 17, 2);
+
+        int pos = 19;
+        int millis = 0;
+        if (pos < s.length() && s.charAt(pos) == '.') {
+            int scale = 100;
+            for (pos++; pos < s.length() && isDigit(s.charAt(pos)); pos++) {
+                millis += (s.charAt(pos) - '0') * scale;
+                scale /= 10;
+            }
+        }
+
+        int offsetMinutes = 0;
+        if (pos < s.length()) {
+            final char sign = s.charAt(pos);
+            if (sign == '+' || sign == '-') {
+                if (s.length() < pos + 6 || s.charAt(pos + 3) != ':')
+                    throw new IllegalArgumentException("Malformed timestamp: " + s);
+                offsetMinutes = digits(s, pos + 1, 2) * 60 + digits(s, pos + 4, 2);
+                if (sign == '-') offsetMinutes = -offsetMinutes;
+            } else if (sign != 'Z') {
+                throw new IllegalArgumentException("Malformed timestamp: " + s);
+            }
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            throw new IllegalArgumentException("Malformed timestamp: " + s);
+        }
+
+        return epochDayFromCivil(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute - offsetMinutes) * 60L + second) * 1000L + millis;
+    }
+
+    /**
+     * @return "yyyy-MM-dd" of the epoch day
+     */
+    public static String formatDate(int epochDay) {
+        // http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        final long z = epochDay + 719468L;
+        final long era = floorDiv(z, 146097);
+        final long doe = z - era * 146097;
+        final long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final long mp = (5 * doy + 2) / 153;
+        final int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        final int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        final int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+
+        final char[] chars = new char[10];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        putDigits(chars, 8, day, 2);
+        return new String(chars);
+    }
+
+    static long epochDayFromCivil(int year, int month, int day) {
+        // http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = floorDiv(y, 400);
+        final long yoe = y - era * 400;
+        final long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = s.charAt(i);
+            if (!isDigit(c))
+                throw new IllegalArgumentException("Malformed timestamp: " + s);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void putDigits(char[] chars, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) q--;
+        return q;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe token bucket: holds up to {@code capacity} permits and refills one permit every
+ * {@code period / permits}. A caller that finds the bucket empty reserves the next free permit
+ * and sleeps until it is due, so callers beyond the budget queue up in arrival order instead
+ * of failing.
+ */
+public final class TokenBucket {
+
+    private final double mCapacity;
+    private final long mIntervalNanos;
+
+    // Negative while callers are waiting for permits that are not refilled yet
+    private double mTokens;
+    private long mLastRefillNanos;
+
+    public TokenBucket(int capacity, int permits, long period, TimeUnit unit) {
+        this(capacity, permits, period, unit, System.nanoTime());
+    }
+
+    TokenBucket(int capacity, int permits, long period, TimeUnit unit, long nowNanos) {
+        if (capacity <= 0 || permits <= 0 || period <= 0)
+            throw new IllegalArgumentException("capacity, permits and period must be positive");
+
+        mCapacity = capacity;
+        mIntervalNanos = unit.toNanos(period) / permits;
+        mTokens = capacity;
+        mLastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes a permit, blocking until one is available.
+     */
+    public void acquire() throws InterruptedException {
+        final long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0)
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    /**
+     * Takes a permit at {@code nowNanos}.
+     *
+     * @return nanos the caller has to wait before using the permit, zero if it is available now
+     */
+    synchronized long reserve(long nowNanos) {
+        refill(nowNanos);
+        mTokens -= 1;
+        return mTokens >= 0 ? 0 : (long) Math.ceil(-mTokens * mIntervalNanos);
+    }
+
+    synchronized double available(long nowNanos) {
+        refill(nowNanos);
+        return mTokens;
+    }
+
+    private void refill(long nowNanos) {
+        final long elapsed = nowNanos - mLastRefillNanos;
+        if (elapsed > 0) {
+            mTokens = Math.min(mCapacity, mTokens + (double) elapsed / mIntervalNanos);
+            mLastRefillNanos = nowNanos;
+        }
+    }
+}
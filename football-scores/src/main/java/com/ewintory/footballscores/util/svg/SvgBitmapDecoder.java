@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util.svg;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RectF;
+
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
+import com.bumptech.glide.request.target.Target;
+import com.caverock.androidsvg.SVG;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Rasterizes an SVG from an {@link InputStream} into a {@link Bitmap} that fits the requested size,
+ * so the result can go to Glide's result disk cache and be drawn on a hardware canvas.
+ */
+public final class SvgBitmapDecoder implements ResourceDecoder<InputStream, Bitmap> {
+
+    // Used when neither the request nor the document has a size
+    private static final int DEFAULT_SIZE = 256;
+
+    private final SvgDecoder mSvgDecoder = new SvgDecoder();
+    private final BitmapPool mBitmapPool;
+
+    public SvgBitmapDecoder(BitmapPool bitmapPool) {
+        mBitmapPool = bitmapPool;
+    }
+
+    @Override
+    public Resource<Bitmap> decode(InputStream source, int width, int height) throws IOException {
+        final SVG svg = mSvgDecoder.decode(source, width, height).get();
+
+        float docWidth = svg.getDocumentWidth();
+        float docHeight = svg.getDocumentHeight();
+        if (svg.getDocumentViewBox() == null && docWidth > 0 && docHeight > 0) {
+            // Without a view box the document is not scaled to the viewport
+            svg.setDocumentViewBox(0, 0, docWidth, docHeight);
+        }
+
+        final RectF viewBox = svg.getDocumentViewBox();
+        if (viewBox != null) {
+            docWidth = viewBox.width();
+            docHeight = viewBox.height();
+        }
+        if (docWidth <= 0 || docHeight <= 0) {
+            docWidth = docHeight = DEFAULT_SIZE;
+        }
+
+        // Fit centered, keeping the aspect ratio of the document
+        float scale = 1f;
+        if (width != Target.SIZE_ORIGINAL && height != Target.SIZE_ORIGINAL) {
+            scale = Math.min(width / docWidth, height / docHeight);
+        }
+        final int bitmapWidth = Math.max(1, Math.round(docWidth * scale));
+        final int bitmapHeight = Math.max(1, Math.round(docHeight * scale));
+
+        Bitmap bitmap = mBitmapPool.get(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+
+        svg.renderToCanvas(new Canvas(bitmap), new RectF(0, 0, bitmapWidth, bitmapHeight));
+        return BitmapResource.obtain(bitmap, mBitmapPool);
+    }
+
+    @Override
+    public String getId() {
+        return "SvgBitmapDecoder.com.ewintory.footballscores.app";
+    }
+}
@@ -1,52 +0,0 @@
-/*
- * Copyright 2015.  Emin Yahyayev
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.ewintory.footballscores.util.svg;
-
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Picture;
-import android.graphics.drawable.PictureDrawable;
-
-import com.bumptech.glide.load.engine.Resource;
-import com.bumptech.glide.load.resource.SimpleResource;
-import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
-import com.caverock.androidsvg.SVG;
-
-/**
- * Convert the {@link SVG}'s internal representation to an Android-compatible one ({@link Picture}).
- */
-public final class SvgBitmapTranscoder implements ResourceTranscoder<SVG, Bitmap> {
-    @Override
-    public Resource<Bitmap> transcode(Resource<SVG> toTranscode) {
-        SVG svg = toTranscode.get();
-        Picture picture = svg.renderToPicture();
-        PictureDrawable drawable = new PictureDrawable(picture);
-        return new SimpleResource<>(pictureDrawableToBitmap(drawable));
-    }
-
-    @Override
-    public String getId() {
-        return "";
-    }
-
-    private Bitmap pictureDrawableToBitmap(PictureDrawable pictureDrawable) {
-        Bitmap bmp = Bitmap.createBitmap(pictureDrawable.getIntrinsicWidth(), pictureDrawable.getIntrinsicHeight(), Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bmp);
-        canvas.drawPicture(pictureDrawable.getPicture());
-        return bmp;
-    }
-}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.appwidget;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TodaySnapshotTest {
+
+    private static final TodaySnapshot.Row ARSENAL_EVERTON =
+            new TodaySnapshot.Row(1L, 398, "Arsenal London FC", "Everton FC", 2, 1, 5);
+    private static final TodaySnapshot.Row BAYERN_HSV =
+            new TodaySnapshot.Row(2L, 394, "FC Bayern M\u00fcnchen", "Hamburger SV", -1, -1, 5);
+
+    @Test
+    public void roundTrip() throws IOException {
+        TodaySnapshot snapshot = new TodaySnapshot(16600, Arrays.asList(ARSENAL_EVERTON, BAYERN_HSV));
+        assertEquals(snapshot, read(write(snapshot)));
+    }
+
+    @Test
+    public void emptyRoundTrip() throws IOException {
+        TodaySnapshot snapshot = new TodaySnapshot(16600, Collections.<TodaySnapshot.Row>emptyList());
+        assertEquals(snapshot, read(write(snapshot)));
+    }
+
+    @Test
+    public void goalChangesSnapshot() {
+        TodaySnapshot before = new TodaySnapshot(16600, Arrays.asList(ARSENAL_EVERTON, BAYERN_HSV));
+        TodaySnapshot after = new TodaySnapshot(16600, Arrays.asList(ARSENAL_EVERTON,
+                new TodaySnapshot.Row(2L, 394, "FC Bayern M\u00fcnchen", "Hamburger SV", 1, 0, 5)));
+        assertFalse(before.equals(after));
+    }
+
+    @Test
+    public void dayChangesSnapshot() {
+        assertFalse(new TodaySnapshot(16600, Collections.singletonList(ARSENAL_EVERTON))
+                .equals(new TodaySnapshot(16601, Collections.singletonList(ARSENAL_EVERTON))));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedSnapshotFails() throws IOException {
+        byte[] bytes = write(new TodaySnapshot(16600, Arrays.asList(ARSENAL_EVERTON, BAYERN_HSV)));
+        read(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    private static byte[] write(TodaySnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        snapshot.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static TodaySnapshot read(byte[] bytes) throws IOException {
+        return TodaySnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.provider;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.FINISHED;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.IN_PLAY;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.POSTPONED;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.TIMED;
+import static org.junit.Assert.assertEquals;
+
+public class ScoreChangeDetectorTest {
+
+    private static final long MATCH = 146935L;
+
+    @Test
+    public void kickoff() {
+        assertEquals(Collections.singletonList(event(ScoreEvent.Type.KICKOFF, 0, 0, false)),
+                detect(TIMED, -1, -1, IN_PLAY, 0, 0));
+    }
+
+    @Test
+    public void goalOfEachTeam() {
+        assertEquals(Collections.singletonList(event(ScoreEvent.Type.GOAL, 1, 0, true)),
+                detect(IN_PLAY, 0, 0, IN_PLAY, 1, 0));
+        assertEquals(Arrays.asList(
+                        event(ScoreEvent.Type.GOAL, 2, 2, true),
+                        event(ScoreEvent.Type.GOAL, 2, 2, false)),
+                detect(IN_PLAY, 1, 1, IN_PLAY, 2, 2));
+    }
+
+    @Test
+    public void finalWhistle() {
+        assertEquals(Collections.singletonList(event(ScoreEvent.Type.FINAL_WHISTLE, 2, 1, false)),
+                detect(IN_PLAY, 2, 1, FINISHED, 2, 1));
+    }
+
+    @Test
+    public void skippedStatesAreReportedInOrder() {
+        assertEquals(Arrays.asList(
+                        event(ScoreEvent.Type.KICKOFF, 0, 0, false),
+                        event(ScoreEvent.Type.GOAL, 0, 3, false),
+                        event(ScoreEvent.Type.FINAL_WHISTLE, 0, 3, false)),
+                detect(TIMED, -1, -1, FINISHED, 0, 3));
+    }
+
+    @Test
+    public void postponed() {
+        assertEquals(Collections.singletonList(event(ScoreEvent.Type.POSTPONED, -1, -1, false)),
+                detect(TIMED, -1, -1, POSTPONED, -1, -1));
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(POSTPONED, -1, -1, POSTPONED, -1, -1));
+    }
+
+    @Test
+    public void noEventsWithoutChange() {
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(IN_PLAY, 1, 0, IN_PLAY, 1, 0));
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(FINISHED, 1, 0, FINISHED, 1, 0));
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(null, -1, -1, TIMED, -1, -1));
+    }
+
+    @Test
+    public void unknownStoredStatusOnlySeedsState() {
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(null, 2, 1, FINISHED, 2, 1));
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(null, -1, -1, IN_PLAY, 1, 0));
+    }
+
+    @Test
+    public void disallowedGoalIsNotAnEvent() {
+        assertEquals(Collections.<ScoreEvent>emptyList(), detect(IN_PLAY, 1, 1, IN_PLAY, 1, 0));
+    }
+
+    private static List<ScoreEvent> detect(String oldStatus, int oldHome, int oldAway,
+                                           String newStatus, int newHome, int newAway) {
+        final List<ScoreEvent> events = new ArrayList<>();
+        ScoreChangeDetector.detect(MATCH, oldStatus, oldHome, oldAway, newStatus, newHome, newAway, events);
+        return events;
+    }
+
+    private static ScoreEvent event(ScoreEvent.Type type, int homeGoals, int awayGoals, boolean homeGoal) {
+        return new ScoreEvent(type, MATCH, homeGoals, awayGoals, homeGoal);
+    }
+}
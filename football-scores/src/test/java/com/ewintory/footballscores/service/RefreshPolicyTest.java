@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.service;
+
+import com.ewintory.footballscores.util.Clock;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.CANCELED;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.FINISHED;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.IN_PLAY;
+import static com.ewintory.footballscores.provider.ScoresContract.MatchStatus.TIMED;
+import static org.junit.Assert.assertEquals;
+
+public class RefreshPolicyTest {
+
+    private static final long NOW = 1440000000000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final RefreshPolicy mPolicy = new RefreshPolicy(new Clock() {
+        @Override public long currentTimeMillis() {
+            return NOW;
+        }
+    });
+
+    @Test
+    public void pollsEveryMinuteWhileInPlay() {
+        assertEquals(NOW + MINUTE, next(new long[]{NOW - 30 * MINUTE, NOW + 5 * HOUR},
+                new String[]{IN_PLAY, TIMED}, 7));
+    }
+
+    @Test
+    public void timedMatchPastKickoffCountsAsInPlay() {
+        assertEquals(NOW + MINUTE, next(new long[]{NOW - 10 * MINUTE}, new String[]{TIMED}, 0));
+        assertEquals(NOW + MINUTE, next(new long[]{NOW - 10 * MINUTE}, new String[]{null}, 0));
+    }
+
+    @Test
+    public void finishedMatchesAreIgnored() {
+        assertEquals(NOW + 5 * HOUR, next(new long[]{NOW - 10 * MINUTE, NOW - HOUR, NOW + 5 * HOUR},
+                new String[]{FINISHED, CANCELED, TIMED}, 0));
+    }
+
+    @Test
+    public void timedMatchIsNoLongerLiveAfterFullTime() {
+        assertEquals(NOW + RefreshPolicy.NEAR_INTERVAL,
+                next(new long[]{NOW - 3 * HOUR}, new String[]{TIMED}, 0));
+    }
+
+    @Test
+    public void backsOffBeforeNearKickoff() {
+        final long[] kickoffs = {NOW + 100 * MINUTE};
+        final String[] statuses = {TIMED};
+        assertEquals(NOW + 15 * MINUTE, next(kickoffs, statuses, 0));
+        assertEquals(NOW + 30 * MINUTE, next(kickoffs, statuses, 1));
+        assertEquals(NOW + 60 * MINUTE, next(kickoffs, statuses, 2));
+        // Never sleeps past the kickoff
+        assertEquals(NOW + 100 * MINUTE, next(kickoffs, statuses, 3));
+    }
+
+    @Test
+    public void sleepsUntilDistantKickoff() {
+        assertEquals(NOW + 20 * HOUR, next(new long[]{NOW + 30 * HOUR, NOW + 20 * HOUR},
+                new String[]{TIMED, TIMED}, 0));
+    }
+
+    @Test
+    public void backsOffUpToCapWithoutMatches() {
+        assertEquals(NOW + 15 * MINUTE, next(new long[0], new String[0], 0));
+        assertEquals(NOW + 4 * HOUR, next(new long[0], new String[0], 4));
+        assertEquals(NOW + RefreshPolicy.MAX_IDLE_INTERVAL, next(new long[0], new String[0], 5));
+        assertEquals(NOW + RefreshPolicy.MAX_IDLE_INTERVAL, next(new long[0], new String[0], Integer.MAX_VALUE));
+    }
+
+    private long next(long[] kickoffs, String[] statuses, int unchangedRuns) {
+        return mPolicy.getNextRefreshTime(kickoffs, statuses, unchangedRuns);
+    }
+}
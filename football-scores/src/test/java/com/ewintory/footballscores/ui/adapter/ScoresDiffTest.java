@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.ui.adapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScoresDiffTest {
+
+    @Test
+    public void identicalSnapshotsHaveNoOperations() {
+        ScoresDiff diff = ScoresDiff.calculate(snapshot(1, 2, 3), snapshot(1, 2, 3));
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void changedScoreIsTheOnlyOperation() {
+        ScoresDiff.Snapshot before = snapshot(1, 2, 3);
+        ScoresDiff.Snapshot after = new ScoresDiff.Snapshot(new long[]{1, 2, 3}, new int[]{1, 20, 3});
+
+        RecordingCallback callback = apply(before, after);
+        assertEquals("[change 1]", callback.mLog.toString());
+    }
+
+    @Test
+    public void insertsRemovesAndMoves() {
+        ScoresDiff.Snapshot before = snapshot(1, 2, 3, 4);
+        ScoresDiff.Snapshot after = snapshot(5, 4, 1, 3);
+
+        RecordingCallback callback = apply(before, after);
+        assertEquals("[remove 1, insert 0, move 3->1]", callback.mLog.toString());
+    }
+
+    @Test
+    public void randomSnapshotsAreReproduced() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            apply(randomSnapshot(random), randomSnapshot(random));
+        }
+    }
+
+    /**
+     * Replays the diff on a copy of the old list, items that were not inserted or changed must
+     * already match the new list.
+     */
+    private static RecordingCallback apply(ScoresDiff.Snapshot before, ScoresDiff.Snapshot after) {
+        RecordingCallback callback = new RecordingCallback(before);
+        ScoresDiff diff = ScoresDiff.calculate(before, after);
+        diff.dispatch(callback);
+
+        assertEquals(after.size(), callback.mItems.size());
+        for (int i = 0; i < after.size(); i++) {
+            final long[] item = callback.mItems.get(i);
+            if (item == null)
+                continue; // rebound from the new list
+            assertEquals(after.getId(i), item[0]);
+            assertEquals(after.getHash(i), item[1]);
+        }
+        return callback;
+    }
+
+    private static ScoresDiff.Snapshot snapshot(long... ids) {
+        int[] hashes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            hashes[i] = (int) ids[i];
+        }
+        return new ScoresDiff.Snapshot(ids, hashes);
+    }
+
+    private static ScoresDiff.Snapshot randomSnapshot(Random random) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 20; id++) {
+            if (random.nextBoolean()) ids.add(id);
+        }
+        Collections.shuffle(ids, random);
+
+        long[] idArray = new long[ids.size()];
+        int[] hashes = new int[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            idArray[i] = ids.get(i);
+            hashes[i] = random.nextInt(3);
+        }
+        return new ScoresDiff.Snapshot(idArray, hashes);
+    }
+
+    private static final class RecordingCallback implements ScoresDiff.Callback {
+        final List<String> mLog = new ArrayList<>();
+        final List<long[]> mItems = new ArrayList<>();
+
+        RecordingCallback(ScoresDiff.Snapshot before) {
+            for (int i = 0; i < before.size(); i++) {
+                mItems.add(new long[]{before.getId(i), before.getHash(i)});
+            }
+        }
+
+        @Override public void onInserted(int position) {
+            mLog.add("insert " + position);
+            mItems.add(position, null);
+        }
+
+        @Override public void onRemoved(int position) {
+            mLog.add("remove " + position);
+            mItems.remove(position);
+        }
+
+        @Override public void onMoved(int fromPosition, int toPosition) {
+            mLog.add("move " + fromPosition + "->" + toPosition);
+            mItems.add(toPosition, mItems.remove(fromPosition));
+        }
+
+        @Override public void onChanged(int position) {
+            mLog.add("change " + position);
+            mItems.set(position, null);
+        }
+    }
+}
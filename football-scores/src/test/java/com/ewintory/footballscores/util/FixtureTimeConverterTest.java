@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixtureTimeConverterTest {
+
+    @Test
+    public void parsesUtcTimestamps() {
+        assertEquals(0L, FixtureTimeConverter.parseUtcMillis("1970-01-01T00:00:00Z"));
+        assertEquals(1442066400000L, FixtureTimeConverter.parseUtcMillis("2015-09-12T14:00:00Z"));
+        assertEquals(1442066400123L, FixtureTimeConverter.parseUtcMillis("2015-09-12T14:00:00.123Z"));
+        assertEquals(1442066400000L, FixtureTimeConverter.parseUtcMillis("2015-09-12T16:00:00+02:00"));
+        assertEquals(951782400000L, FixtureTimeConverter.parseUtcMillis("2000-02-29T00:00:00Z"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedTimestamps() {
+        FixtureTimeConverter.parseUtcMillis("2015-09-12 14:00:00");
+    }
+
+    @Test
+    public void londonSpringForward() {
+        // 2015-03-29 01:00 GMT clocks jump to 02:00 BST
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("Europe/London"));
+        assertLocal(converter, "2015-03-29T00:59:00Z", "2015-03-29", "00:59");
+        assertLocal(converter, "2015-03-29T01:00:00Z", "2015-03-29", "02:00");
+    }
+
+    @Test
+    public void londonFallBack() {
+        // 2015-10-25 02:00 BST clocks go back to 01:00 GMT, so 01:xx local happens twice
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("Europe/London"));
+        assertLocal(converter, "2015-10-25T00:30:00Z", "2015-10-25", "01:30");
+        assertLocal(converter, "2015-10-25T01:30:00Z", "2015-10-25", "01:30");
+        assertLocal(converter, "2015-10-25T02:00:00Z", "2015-10-25", "02:00");
+    }
+
+    @Test
+    public void newYorkTransitionsCrossUtcMidnight() {
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("America/New_York"));
+        assertLocal(converter, "2015-03-08T06:59:00Z", "2015-03-08", "01:59");
+        assertLocal(converter, "2015-03-08T07:00:00Z", "2015-03-08", "03:00");
+        // 01:30 UTC is still the previous local day
+        assertLocal(converter, "2015-11-01T01:30:00Z", "2015-10-31", "21:30");
+        assertLocal(converter, "2015-11-01T06:00:00Z", "2015-11-01", "01:00");
+    }
+
+    @Test
+    public void sydneyKickoffMovesToNextLocalDay() {
+        // DST starts 2015-10-04 02:00 AEST (2015-10-03 16:00 UTC)
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("Australia/Sydney"));
+        assertLocal(converter, "2015-10-03T13:59:00Z", "2015-10-03", "23:59");
+        assertLocal(converter, "2015-10-03T15:59:00Z", "2015-10-04", "01:59");
+        assertLocal(converter, "2015-10-03T16:00:00Z", "2015-10-04", "03:00");
+    }
+
+    @Test
+    public void lordHoweHalfHourShift() {
+        // DST adds 30 minutes on 2015-10-04 02:00 LHST (2015-10-03 15:30 UTC)
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("Australia/Lord_Howe"));
+        assertLocal(converter, "2015-10-03T15:29:00Z", "2015-10-04", "01:59");
+        assertLocal(converter, "2015-10-03T15:30:00Z", "2015-10-04", "02:30");
+    }
+
+    @Test
+    public void dayStartSkipsMissingMidnight() {
+        // Sao Paulo jumped from 2015-10-18 00:00 straight to 01:00 (03:00 UTC)
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("America/Sao_Paulo"));
+        int day = (int) FixtureTimeConverter.epochDayFromCivil(2015, 10, 18);
+        assertEquals(FixtureTimeConverter.parseUtcMillis("2015-10-18T03:00:00Z"), converter.getDayStartMillis(day));
+        assertEquals(FixtureTimeConverter.parseUtcMillis("2015-10-17T03:00:00Z"), converter.getDayStartMillis(day - 1));
+        assertEquals(FixtureTimeConverter.parseUtcMillis("2015-10-19T02:00:00Z"), converter.getDayStartMillis(day + 1));
+    }
+
+    @Test
+    public void dayStartAroundFallBack() {
+        FixtureTimeConverter converter = new FixtureTimeConverter(TimeZone.getTimeZone("Europe/London"));
+        int day = (int) FixtureTimeConverter.epochDayFromCivil(2015, 10, 25);
+        assertEquals(FixtureTimeConverter.parseUtcMillis("2015-10-24T23:00:00Z"), converter.getDayStartMillis(day));
+        assertEquals(FixtureTimeConverter.parseUtcMillis("2015-10-26T00:00:00Z"), converter.getDayStartMillis(day + 1));
+        assertEquals(day, converter.toLocalEpochDay(converter.getDayStartMillis(day)));
+    }
+
+    @Test
+    public void matchesSimpleDateFormat() throws Exception {
+        final Random random = new Random(42);
+        final SimpleDateFormat utc = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        utc.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        for (String id : new String[]{"UTC", "Europe/London", "Europe/Moscow", "America/Sao_Paulo",
+                "Asia/Kathmandu", "Australia/Lord_Howe", "Pacific/Chatham"}) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            final FixtureTimeConverter converter = new FixtureTimeConverter(zone);
+            final SimpleDateFormat local = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+            local.setTimeZone(zone);
+
+            for (int i = 0; i < 2000; i++) {
+                // minutes between 2010 and 2020
+                final long millis = (1262304000L + (long) random.nextInt(315532800)) / 60 * 60 * 1000;
+                final String timestamp = utc.format(new Date(millis));
+                final long utcMillis = FixtureTimeConverter.parseUtcMillis(timestamp);
+
+                assertEquals(id + " " + timestamp, local.format(new Date(millis)),
+                        FixtureTimeConverter.formatDate(converter.toLocalEpochDay(utcMillis)) + " "
+                                + formatLocalTime(converter, utcMillis));
+            }
+        }
+    }
+
+    private static void assertLocal(FixtureTimeConverter converter, String timestamp, String date, String time) {
+        final long utcMillis = FixtureTimeConverter.parseUtcMillis(timestamp);
+        assertEquals(date, FixtureTimeConverter.formatDate(converter.toLocalEpochDay(utcMillis)));
+        assertEquals(time, formatLocalTime(converter, utcMillis));
+    }
+
+    /**
+     * @return "HH:mm" of the instant in the converter's zone, instants are after 1970
+     */
+    private static String formatLocalTime(FixtureTimeConverter converter, long utcMillis) {
+        final long localMinutes = (utcMillis + converter.getOffset(utcMillis)) / (60 * 1000);
+        return String.format(Locale.US, "%02d:%02d", localMinutes / 60 % 24, localMinutes % 60);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015.  Emin Yahyayev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ewintory.footballscores.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstUpToCapacityIsFree() {
+        TokenBucket bucket = new TokenBucket(3, 1, 1, TimeUnit.SECONDS, 0);
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    public void callersOverBudgetQueueUp() {
+        TokenBucket bucket = new TokenBucket(1, 1, 1, TimeUnit.SECONDS, 0);
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(SECOND, bucket.reserve(0));
+        assertEquals(2 * SECOND, bucket.reserve(0));
+        // Half a second later the first waiter is half way through
+        assertEquals(5 * SECOND / 2, bucket.reserve(SECOND / 2));
+    }
+
+    @Test
+    public void refillIsCappedByCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 1, TimeUnit.SECONDS, 0);
+        assertEquals(2.0, bucket.available(100 * SECOND), 1e-9);
+        bucket.reserve(100 * SECOND);
+        bucket.reserve(100 * SECOND);
+        assertEquals(SECOND, bucket.reserve(100 * SECOND));
+    }
+
+    @Test
+    public void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(50, 50, 1, TimeUnit.MINUTES, 0);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, bucket.reserve(0));
+        }
+        assertEquals(0.0, bucket.available(0), 1e-9);
+        assertEquals(1.0, bucket.available(TimeUnit.SECONDS.toNanos(60) / 50), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBucket() {
+        new TokenBucket(0, 1, 1, TimeUnit.SECONDS);
+    }
+}